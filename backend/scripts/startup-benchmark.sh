@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Compares time-to-healthy for the plain jar, the AOT + CDS build and the
+# native image. Build them first:
+#   mvn -DskipTests package                       -> target/backend-0.0.1-SNAPSHOT.jar
+#   mvn -DskipTests -Pfast-start package          -> target/fast-start/
+#   mvn -DskipTests -Pnative native:compile       -> target/backend
+# Needs the usual DB_URL, DB_USER, DB_PASS, JWT_KEY and GEMINI_API_KEY.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${RUNS:-5}
+HEALTH=${HEALTH:-http://localhost:8081/actuator/health}
+export DDL_AUTO=${DDL_AUTO:-none}
+
+measure() {
+  local name=$1; shift
+  local total=0
+  for _ in $(seq "$RUNS"); do
+    local start end
+    start=$(date +%s%N)
+    "$@" > /dev/null 2>&1 &
+    local pid=$!
+    until curl -sf "$HEALTH" > /dev/null; do sleep 0.05; done
+    end=$(date +%s%N)
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+    total=$((total + (end - start) / 1000000))
+  done
+  printf '%-12s %6d ms (mean of %d)\n' "$name" $((total / RUNS)) "$RUNS"
+}
+
+[ -f target/backend-0.0.1-SNAPSHOT.jar ] && \
+  measure jar java -jar target/backend-0.0.1-SNAPSHOT.jar
+[ -f target/fast-start/backend.jsa ] && \
+  measure aot+cds java -XX:SharedArchiveFile=target/fast-start/backend.jsa -Dspring.aot.enabled=true \
+    -jar target/fast-start/backend-0.0.1-SNAPSHOT.jar
+[ -x target/backend ] && \
+  measure native target/backend
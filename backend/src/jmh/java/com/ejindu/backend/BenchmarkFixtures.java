@@ -0,0 +1,79 @@
+package com.ejindu.backend;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.ejindu.backend.entity.ExerciseSet;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.entity.WorkoutExercise;
+import com.ejindu.backend.enums.Role;
+
+/**
+ * Workout graphs shaped like real logs: a typical session has 5-8 exercises
+ * of 3-5 sets, a heavy one around 12 exercises of 6 sets.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] EXERCISES = {
+            "Bench Press", "Back Squat", "Deadlift", "Overhead Press", "Barbell Row", "Pull Up",
+            "Romanian Deadlift", "Incline Dumbbell Press", "Leg Press", "Lateral Raise", "Bicep Curl", "Tricep Pushdown"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    public static User user() {
+        return User.builder()
+                .id(42)
+                .firstName("Alex")
+                .lastName("Bench")
+                .email("alex@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .role(Role.USER)
+                .build();
+    }
+
+    public static Workout workout(User user, LocalDate date, int exercises, int sets) {
+        Workout workout = Workout.builder()
+                .id(UUID.randomUUID())
+                .name("Session " + date)
+                .date(date)
+                .notes("Felt strong")
+                .user(user)
+                .build();
+
+        List<WorkoutExercise> list = new ArrayList<>();
+        for (int e = 0; e < exercises; e++) {
+            WorkoutExercise exercise = WorkoutExercise.builder()
+                    .id(UUID.randomUUID())
+                    .name(EXERCISES[e % EXERCISES.length])
+                    .workout(workout)
+                    .build();
+            List<ExerciseSet> setList = new ArrayList<>();
+            for (int s = 0; s < sets; s++) {
+                setList.add(ExerciseSet.builder()
+                        .id(UUID.randomUUID())
+                        .reps(5 + s)
+                        .weightLbs(135 + 10 * e - 5 * s)
+                        .workoutExercise(exercise)
+                        .build());
+            }
+            exercise.setSets(setList);
+            list.add(exercise);
+        }
+        workout.setExercises(list);
+        return workout;
+    }
+
+    public static List<Workout> history(User user, int workouts, int exercises, int sets) {
+        LocalDate start = LocalDate.now().minusDays(workouts * 2L);
+        List<Workout> list = new ArrayList<>();
+        for (int i = 0; i < workouts; i++) {
+            list.add(workout(user, start.plusDays(i * 2L), exercises, sets));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ejindu.backend.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ejindu.backend.BenchmarkFixtures;
+import com.ejindu.backend.mapper.WorkoutMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Encoding cost and size of the two payloads clients can negotiate: a
+ * quarter of workout history and a month of calendar counts, in each
+ * format, with and without gzip. The "bytes" secondary result is the
+ * size of one encoded payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadFormatBenchmark {
+
+    @Param({ "history", "calendar" })
+    String payload;
+
+    @Param({ "json", "smile", "cbor" })
+    String format;
+
+    @Param({ "false", "true" })
+    boolean gzip;
+
+    private ObjectMapper mapper;
+    private Object value;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        // Same settings Boot applies to the web ObjectMapper
+        mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        if (payload.equals("calendar")) {
+            YearMonth month = YearMonth.now().minusMonths(1);
+            Map<LocalDate, Long> days = new TreeMap<>();
+            for (int d = 1; d <= month.lengthOfMonth(); d++) {
+                days.put(month.atDay(d), d % 3 == 0 ? 0L : 1L);
+            }
+            value = days;
+        } else {
+            value = BenchmarkFixtures.history(BenchmarkFixtures.user(), 45, 6, 4).stream()
+                    .map(WorkoutMapper::toDto)
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(Size size) throws IOException {
+        byte[] bytes = write();
+        // Assigned rather than added, so the counter reads as one payload's size
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    private byte[] write() throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(value);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+            mapper.writeValue(zip, value);
+        }
+        return out.toByteArray();
+    }
+}
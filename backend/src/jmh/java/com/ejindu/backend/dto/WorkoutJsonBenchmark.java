@@ -0,0 +1,52 @@
+package com.ejindu.backend.dto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ejindu.backend.BenchmarkFixtures;
+import com.ejindu.backend.mapper.WorkoutMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Serializing what GET /api/workout returns: a list of workouts over a week,
+ * a month and a quarter of history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkoutJsonBenchmark {
+
+    @Param({ "4", "15", "45" })
+    int workouts;
+
+    private ObjectMapper mapper;
+    private List<WorkoutDto> list;
+
+    @Setup
+    public void setUp() {
+        // Same settings Boot applies to the web ObjectMapper
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        list = BenchmarkFixtures.history(BenchmarkFixtures.user(), workouts, 6, 4).stream()
+                .map(WorkoutMapper::toDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(list);
+    }
+}
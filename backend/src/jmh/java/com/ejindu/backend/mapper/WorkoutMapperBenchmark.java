@@ -0,0 +1,50 @@
+package com.ejindu.backend.mapper;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ejindu.backend.BenchmarkFixtures;
+import com.ejindu.backend.dto.WorkoutDto;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkoutMapperBenchmark {
+
+    @Param({ "6x4", "12x6" })
+    String shape;
+
+    private User user;
+    private Workout workout;
+    private WorkoutDto dto;
+
+    @Setup
+    public void setUp() {
+        String[] parts = shape.split("x");
+        user = BenchmarkFixtures.user();
+        workout = BenchmarkFixtures.workout(user, LocalDate.now(),
+                Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        dto = WorkoutMapper.toDto(workout);
+    }
+
+    @Benchmark
+    public WorkoutDto toDto() {
+        return WorkoutMapper.toDto(workout);
+    }
+
+    @Benchmark
+    public Workout toEntity() {
+        return WorkoutMapper.toEntity(dto, user);
+    }
+}
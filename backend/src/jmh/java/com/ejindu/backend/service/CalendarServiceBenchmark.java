@@ -0,0 +1,72 @@
+package com.ejindu.backend.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ejindu.backend.BenchmarkFixtures;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.repository.WorkoutRepository;
+import com.ejindu.backend.repository.WorkoutRepository.DailyCount;
+
+/**
+ * Gap-filling and sorting in heatmap() with the query stubbed out, for a
+ * sparse and a dense month.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CalendarServiceBenchmark {
+
+    @Param({ "4", "25" })
+    int trainedDays;
+
+    private CalendarService calendarService;
+    private User user;
+    private YearMonth month;
+
+    @Setup
+    public void setUp() {
+        month = YearMonth.now().minusMonths(1);
+        List<DailyCount> rows = new ArrayList<>();
+        for (int d = 1; d <= trainedDays; d++) {
+            LocalDate date = month.atDay(d);
+            rows.add(new DailyCount() {
+                public LocalDate getDate() {
+                    return date;
+                }
+
+                public long getCnt() {
+                    return 1;
+                }
+            });
+        }
+
+        WorkoutRepository repository = mock(WorkoutRepository.class);
+        when(repository.workoutCounts(any(), any(), any())).thenReturn(rows);
+        // Recent-history cache always misses, so the query path is measured
+        calendarService = new CalendarService(repository, mock(RecentHistoryCache.class));
+        user = BenchmarkFixtures.user();
+    }
+
+    @Benchmark
+    public Map<LocalDate, Long> heatmap() {
+        return calendarService.heatmap(user, month);
+    }
+}
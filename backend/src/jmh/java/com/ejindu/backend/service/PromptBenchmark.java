@@ -0,0 +1,60 @@
+package com.ejindu.backend.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ejindu.backend.BenchmarkFixtures;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.enums.Goal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Building the Gemini prompts, which serializes the workout graph each time.
+ * No HTTP call is made.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PromptBenchmark {
+
+    @Param({ "4", "15" })
+    int workouts;
+
+    private GeminiService gemini;
+    private User user;
+    private List<Workout> history;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        gemini = new GeminiService(null, mapper, null, null);
+        user = BenchmarkFixtures.user();
+        history = BenchmarkFixtures.history(user, workouts, 6, 4);
+        from = history.get(0).getDate();
+        to = history.get(history.size() - 1).getDate();
+    }
+
+    @Benchmark
+    public String singlePrompt() {
+        return gemini.singlePrompt(history.get(0), Goal.STRENGTH);
+    }
+
+    @Benchmark
+    public String periodPrompt() {
+        return gemini.periodPrompt(user, history, from, to, Goal.STRENGTH);
+    }
+}
@@ -0,0 +1,179 @@
+package com.ejindu.backend.loadtest;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Seeds users with multi-year training histories straight through JDBC.
+ * Ids are generated client side, so workouts, exercises and sets go in as
+ * large batches that the driver rewrites into multi-row inserts. Users that
+ * already exist are reused as they are, which makes re-runs cheap.
+ */
+class DataSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private static final String[][] SPLITS = {
+            { "Bench Press", "Overhead Press", "Incline Dumbbell Press", "Tricep Pushdown" },
+            { "Deadlift", "Barbell Row", "Pull Up", "Bicep Curl" },
+            { "Back Squat", "Romanian Deadlift", "Leg Press", "Calf Raise" }
+    };
+    private static final String[] SPLIT_NAMES = { "Push", "Pull", "Legs" };
+    private static final int BATCH = 5_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Random random = new Random(42);
+
+    DataSeeder(String url, String username, String password) {
+        this.url = url.contains("reWriteBatchedInserts") ? url
+                : url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+        this.username = username;
+        this.password = password;
+    }
+
+    /** Returns the seeded users; each one's recent workout ids are kept for update and analyse traffic. */
+    List<LoadTest.Account> seed(int users, int years, int sessionsPerWeek) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<LoadTest.Account> accounts = new ArrayList<>();
+
+        try (Connection c = DriverManager.getConnection(url, username, password)) {
+            c.setAutoCommit(false);
+            for (int i = 0; i < users; i++) {
+                String email = "loadtest-" + i + "@example.com";
+                Integer id = existingUser(c, email);
+                if (id != null) {
+                    accounts.add(new LoadTest.Account(email, recentWorkouts(c, id)));
+                    continue;
+                }
+                id = insertUser(c, email, hash, i);
+                accounts.add(new LoadTest.Account(email, insertHistory(c, id, years, sessionsPerWeek)));
+                c.commit();
+            }
+        }
+        return accounts;
+    }
+
+    private Integer existingUser(Connection c, String email) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT id FROM _user WHERE email = ?")) {
+            ps.setString(1, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    private List<UUID> recentWorkouts(Connection c, int userId) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT id FROM workout WHERE user_id = ? ORDER BY date DESC LIMIT 20")) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private int insertUser(Connection c, String email, String hash, int i) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO _user (first_name, last_name, email, password, role)
+                VALUES (?, ?, ?, ?, 'USER') RETURNING id""")) {
+            ps.setString(1, "Load");
+            ps.setString(2, "Tester" + i);
+            ps.setString(3, email);
+            ps.setString(4, hash);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private List<UUID> insertHistory(Connection c, int userId, int years, int sessionsPerWeek) throws SQLException {
+        List<UUID> recent = new ArrayList<>();
+        try (PreparedStatement workouts = c.prepareStatement(
+                        "INSERT INTO workout (id, name, date, notes, user_id) VALUES (?, ?, ?, ?, ?)");
+                PreparedStatement exercises = c.prepareStatement(
+                        "INSERT INTO workout_exercise (id, name, workout_id) VALUES (?, ?, ?)");
+                PreparedStatement sets = c.prepareStatement(
+                        "INSERT INTO exercise_set (id, reps, weight_lbs, workout_exercise_id)"
+                                + " VALUES (?, ?, ?, ?)")) {
+
+            LocalDate today = LocalDate.now();
+            LocalDate day = today.minusYears(years);
+            int session = 0;
+            int pending = 0;
+            double trainingChance = sessionsPerWeek / 7.0;
+
+            for (; !day.isAfter(today); day = day.plusDays(1)) {
+                if (random.nextDouble() >= trainingChance) {
+                    continue;
+                }
+                int split = session++ % SPLITS.length;
+                // Slow linear progression with noise, so the rules engine has trends to find
+                double progress = 1 + (double) session / 400;
+
+                UUID workoutId = UUID.randomUUID();
+                workouts.setObject(1, workoutId);
+                workouts.setString(2, SPLIT_NAMES[split]);
+                workouts.setDate(3, Date.valueOf(day));
+                workouts.setString(4, random.nextInt(10) == 0 ? "Felt tired" : null);
+                workouts.setInt(5, userId);
+                workouts.addBatch();
+
+                for (String name : SPLITS[split]) {
+                    UUID exerciseId = UUID.randomUUID();
+                    exercises.setObject(1, exerciseId);
+                    exercises.setString(2, name);
+                    exercises.setObject(3, workoutId);
+                    exercises.addBatch();
+
+                    int setCount = 3 + random.nextInt(3);
+                    int base = (int) (95 * progress) + random.nextInt(20);
+                    for (int s = 0; s < setCount; s++) {
+                        sets.setObject(1, UUID.randomUUID());
+                        sets.setInt(2, 5 + random.nextInt(8));
+                        sets.setInt(3, base - base % 5);
+                        sets.setObject(4, exerciseId);
+                        sets.addBatch();
+                        pending++;
+                    }
+                }
+
+                if (recent.size() == 20) {
+                    recent.remove(0);
+                }
+                recent.add(workoutId);
+
+                if (pending >= BATCH) {
+                    flush(workouts, exercises, sets);
+                    pending = 0;
+                }
+            }
+            flush(workouts, exercises, sets);
+        }
+        return recent;
+    }
+
+    // Parents first so the foreign keys are satisfied within the transaction
+    private static void flush(PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement ps : statements) {
+            ps.executeBatch();
+        }
+    }
+}
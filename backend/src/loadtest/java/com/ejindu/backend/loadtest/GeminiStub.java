@@ -0,0 +1,78 @@
+package com.ejindu.backend.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stands in for the Gemini API so analysis traffic measures our side only.
+ * Answers generateContent with a fixed reply after a configurable delay and
+ * streamGenerateContent with a few SSE chunks.
+ */
+class GeminiStub implements AutoCloseable {
+
+    private static final String REPLY = """
+            {"candidates":[{"content":{"parts":[{"text":"Solid session. Add five pounds to your top set next week."}]}}],
+             "usageMetadata":{"promptTokenCount":420,"candidatesTokenCount":40}}""";
+
+    private final HttpServer server;
+    private final long delayMs;
+
+    GeminiStub(int port, long delayMs) throws IOException {
+        this.delayMs = delayMs;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    void start() {
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        sleep(delayMs);
+
+        boolean stream = exchange.getRequestURI().getPath().contains("streamGenerateContent");
+        String body = stream ? sse() : REPLY;
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", stream ? "text/event-stream" : "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String sse() {
+        StringBuilder events = new StringBuilder();
+        for (String chunk : new String[] { "Solid session. ", "Add five pounds ", "to your top set next week." }) {
+            events.append("data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"")
+                    .append(chunk)
+                    .append("\"}]}}]}\n\n");
+        }
+        events.append("data: {\"usageMetadata\":{\"promptTokenCount\":420,\"candidatesTokenCount\":40}}\n\n");
+        return events.toString();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,338 @@
+package com.ejindu.backend.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * End-to-end load test: seeds users, starts a Gemini stub, replays a
+ * weighted traffic mix against a running backend and reports latency
+ * percentiles and throughput per endpoint.
+ *
+ * <pre>
+ * # terminal 1: backend pointed at the stub, with limits that would skew results turned off
+ * mvn spring-boot:run -Dspring-boot.run.arguments="--gemini.base-url=http://localhost:8089 \
+ *     --rate-limit.enabled=false --gemini.quota.monthly-tokens=0"
+ * # terminal 2
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.users=200 -Dloadtest.duration=120
+ * </pre>
+ *
+ * Everything is configured with -Dloadtest.* properties, see {@link #main}.
+ * The report is printed and written to target/loadtest-report-{label}.json.
+ * To compare thread modes, run once with -Dloadtest.label=platform, restart
+ * the backend with VIRTUAL_THREADS=true and run again with
+ * -Dloadtest.label=virtual -Dloadtest.compare=target/loadtest-report-platform.json.
+ * Storage modes are compared the same way, with a mix such as
+ * -Dloadtest.mix=create=20,update=20,list=20,history=15,exercise=10,period=15 and the
+ * backend restarted with WORKOUT_STORAGE=DOCUMENT WORKOUT_MIGRATE_STORAGE=true
+ * between runs; the seeder writes rows, the migration folds them into documents.
+ */
+public class LoadTest {
+
+    private static final String[] EXERCISES = { "Bench Press", "Barbell Row", "Back Squat", "Overhead Press" };
+
+    record Account(String email, List<UUID> workouts) {
+    }
+
+    private record Session(Account account, String token, List<UUID> workouts) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final String target;
+
+    LoadTest(String target) {
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = prop("target", "http://localhost:8080");
+        int users = Integer.parseInt(prop("users", "100"));
+        int years = Integer.parseInt(prop("years", "3"));
+        int sessionsPerWeek = Integer.parseInt(prop("sessions-per-week", "4"));
+        int concurrency = Integer.parseInt(prop("concurrency", "32"));
+        int durationSeconds = Integer.parseInt(prop("duration", "60"));
+        int warmupSeconds = Integer.parseInt(prop("warmup", "10"));
+        Map<String, Integer> mix = parseMix(prop("mix", "login=5,list=35,calendar=25,create=15,update=10,analyse=10"));
+
+        try (GeminiStub stub = new GeminiStub(Integer.parseInt(prop("gemini-port", "8089")),
+                Long.parseLong(prop("gemini-delay-ms", "800")))) {
+            stub.start();
+            System.out.println("Gemini stub listening on " + stub.baseUrl());
+
+            long seedStart = System.nanoTime();
+            DataSeeder seeder = new DataSeeder(
+                    prop("jdbc-url", System.getenv().getOrDefault("DB_URL", "jdbc:postgresql://localhost:5432/fitlog")),
+                    prop("db-user", System.getenv().getOrDefault("DB_USER", "postgres")),
+                    prop("db-pass", System.getenv().getOrDefault("DB_PASS", "postgres")));
+            List<Account> accounts = seeder.seed(users, years, sessionsPerWeek);
+            System.out.printf("Seeded %d users in %d s%n", accounts.size(),
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStart));
+
+            LoadTest test = new LoadTest(target);
+            List<Session> sessions = test.login(accounts);
+            test.run(sessions, mix, concurrency, warmupSeconds, false);
+            test.recorders.clear();
+            test.run(sessions, mix, concurrency, durationSeconds, true);
+            Map<String, Map<String, Object>> report = test.report(durationSeconds,
+                    Path.of("target", "loadtest-report-" + prop("label", "run") + ".json"));
+            String baseline = prop("compare", null);
+            if (baseline != null) {
+                test.compare(report, Path.of(baseline));
+            }
+        }
+    }
+
+    private static String prop(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            mix.put(kv[0], Integer.parseInt(kv[1]));
+        }
+        return mix;
+    }
+
+    private List<Session> login(List<Account> accounts) throws Exception {
+        List<Session> sessions = new ArrayList<>();
+        for (Account account : accounts) {
+            JsonNode body = json.readTree(authenticate(account).body());
+            sessions.add(new Session(account, body.path("token").asText(),
+                    new CopyOnWriteArrayList<>(account.workouts())));
+        }
+        return sessions;
+    }
+
+    private void run(List<Session> sessions, Map<String, Integer> mix, int concurrency, int seconds, boolean measured)
+            throws InterruptedException {
+        System.out.printf("%s for %d s with %d workers%n", measured ? "Measuring" : "Warming up", seconds, concurrency);
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Session session = sessions.get(random.nextInt(sessions.size()));
+                    String op = pick(mix, random.nextInt(total));
+                    // Accounts seeded without workouts have nothing to update or analyse until they create one
+                    if ((op.equals("update") || op.equals("analyse")) && session.workouts().isEmpty()) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = execute(op, session, random);
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    recorders.computeIfAbsent(op, k -> new Recorder()).record(System.nanoTime() - start, status);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private static String pick(Map<String, Integer> mix, int roll) {
+        for (Map.Entry<String, Integer> e : mix.entrySet()) {
+            roll -= e.getValue();
+            if (roll < 0) {
+                return e.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private int execute(String op, Session s, ThreadLocalRandom random) throws IOException, InterruptedException {
+        LocalDate today = LocalDate.now();
+        return switch (op) {
+            case "login" -> authenticate(s.account()).statusCode();
+            case "list" -> send(get(s, "/api/workout?from=" + today.minusDays(30) + "&to=" + today)).statusCode();
+            case "history" -> send(get(s, "/api/workout?from=" + today.minusYears(1) + "&to=" + today)).statusCode();
+            case "exercise" -> send(get(s, "/api/workout/exercise?limit=20&name="
+                    + URLEncoder.encode(EXERCISES[random.nextInt(EXERCISES.length)], StandardCharsets.UTF_8)))
+                    .statusCode();
+            case "period" -> {
+                // Random ranges, so most requests miss the stored period analyses
+                LocalDate from = today.minusDays(7 + random.nextInt(180));
+                yield send(request(s, "/api/gemini/period")
+                        .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(
+                                Map.of("from", from, "to", from.plusDays(7 + random.nextInt(60))))))
+                        .build()).statusCode();
+            }
+            case "calendar" -> send(get(s, "/api/workout/calendar?month="
+                    + YearMonth.from(today.minusMonths(random.nextInt(12))))).statusCode();
+            case "create" -> {
+                HttpResponse<String> response = send(request(s, "/api/workout")
+                        .POST(HttpRequest.BodyPublishers.ofString(workoutBody(null, random))).build());
+                if (response.statusCode() == 201) {
+                    s.workouts().add(UUID.fromString(json.readTree(response.body()).path("id").asText()));
+                }
+                yield response.statusCode();
+            }
+            case "update" -> {
+                UUID id = s.workouts().get(random.nextInt(s.workouts().size()));
+                yield send(request(s, "/api/workout/" + id)
+                        .PUT(HttpRequest.BodyPublishers.ofString(workoutBody(id, random))).build()).statusCode();
+            }
+            case "analyse" -> {
+                UUID id = s.workouts().get(random.nextInt(s.workouts().size()));
+                yield send(request(s, "/api/gemini/workout/" + id)
+                        .POST(HttpRequest.BodyPublishers.noBody()).build()).statusCode();
+            }
+            default -> throw new IllegalArgumentException("Unknown operation " + op);
+        };
+    }
+
+    private HttpResponse<String> authenticate(Account account) throws IOException, InterruptedException {
+        String body = json.writeValueAsString(Map.of("email", account.email(), "password", DataSeeder.PASSWORD));
+        return send(HttpRequest.newBuilder(URI.create(target + "/api/auth/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private String workoutBody(UUID id, ThreadLocalRandom random) throws IOException {
+        List<Map<String, Object>> exercises = new ArrayList<>();
+        for (String name : EXERCISES) {
+            List<Map<String, Object>> sets = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                sets.add(Map.of("reps", 5 + random.nextInt(6), "weightLbs", 95 + 5 * random.nextInt(30)));
+            }
+            exercises.add(Map.of("name", name, "sets", sets));
+        }
+        Map<String, Object> workout = new LinkedHashMap<>();
+        if (id != null) {
+            workout.put("id", id);
+        }
+        workout.put("name", "Load test session");
+        workout.put("date", LocalDate.now().minusDays(random.nextInt(14)));
+        workout.put("exercises", exercises);
+        return json.writeValueAsString(workout);
+    }
+
+    private HttpRequest get(Session s, String path) {
+        return request(s, path).GET().build();
+    }
+
+    private HttpRequest.Builder request(Session s, String path) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + s.token())
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Map<String, Map<String, Object>> report(int seconds, Path file) throws IOException {
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        System.out.printf("%n%-10s %9s %9s %9s %9s %9s %8s%n", "endpoint", "requests", "rps", "p50 ms", "p95 ms", "p99 ms",
+                "errors");
+        recorders.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+            Recorder r = e.getValue();
+            long[] sorted = r.sorted();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", sorted.length);
+            row.put("throughput", (double) sorted.length / seconds);
+            row.put("p50Ms", percentile(sorted, 0.50));
+            row.put("p95Ms", percentile(sorted, 0.95));
+            row.put("p99Ms", percentile(sorted, 0.99));
+            row.put("errors", r.errors.get());
+            report.put(e.getKey(), row);
+            System.out.printf("%-10s %9d %9.1f %9.1f %9.1f %9.1f %8d%n", e.getKey(), sorted.length,
+                    (double) sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), r.errors.get());
+        });
+        Files.createDirectories(file.getParent());
+        json.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        System.out.println("\nReport written to " + file);
+        return report;
+    }
+
+    private void compare(Map<String, Map<String, Object>> report, Path baselineFile) throws IOException {
+        JsonNode baseline = json.readTree(baselineFile.toFile());
+        System.out.printf("%nCompared with %s%n%-10s %12s %12s%n", baselineFile, "endpoint", "throughput", "p99");
+        report.forEach((endpoint, row) -> {
+            JsonNode before = baseline.path(endpoint);
+            if (before.isMissingNode()) {
+                return;
+            }
+            System.out.printf("%-10s %+11.1f%% %+11.1f%%%n", endpoint,
+                    change(before.path("throughput").asDouble(), (double) row.get("throughput")),
+                    change(before.path("p99Ms").asDouble(), (double) row.get("p99Ms")));
+        });
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static final class Recorder {
+        private long[] samples = new long[1024];
+        private int size;
+        private final AtomicLong errors = new AtomicLong();
+
+        synchronized void record(long nanos, int status) {
+            if (status < 200 || status >= 300) {
+                errors.incrementAndGet();
+            }
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -11,6 +11,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class AuthenticationResponse {
     private String token;
+    private String refreshToken;
+    // Seconds until the access token expires
+    private long expiresIn;
     private String firstName;
     private String lastName;
     private String email;
@@ -1,9 +1,9 @@
 package com.ejindu.backend.auth;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.enums.Role;
@@ -17,41 +17,56 @@ import lombok.RequiredArgsConstructor;
 public class AuthenticationService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingPool passwordHashing;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokens;
 
     public AuthenticationResponse register(RegisterRequest request) {
         var user = User.builder()
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashing.encode(request.getPassword()))
                 .role(Role.USER)
                 .build();
         userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        return AuthenticationResponse.builder()
-                .token(jwtToken)
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .email(user.getEmail())
-                .build();
+        return tokens(user, refreshTokens.issue(user.getId()));
     }
 
+    // One lookup and one hash check, instead of the provider's lookup plus ours
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+        var user = userRepository.findByEmail(request.getEmail());
+        String hash = user.map(User::getPassword).orElse(null);
+        if (!passwordHashing.matches(request.getPassword(), hash)) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return tokens(user.get(), refreshTokens.issue(user.get().getId()));
+    }
 
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow();
+    public AuthenticationResponse refresh(RefreshRequest request) {
+        var rotation = refreshTokens.rotate(request.getRefreshToken())
+                .orElseThrow(AuthenticationService::invalidRefreshToken);
+        var user = userRepository.findById(rotation.userId())
+                .orElseThrow(AuthenticationService::invalidRefreshToken);
+        return tokens(user, rotation.token());
+    }
+
+    public void logout(RefreshRequest request) {
+        refreshTokens.revoke(request.getRefreshToken());
+    }
 
-        var jwtToken = jwtService.generateToken(user);
+    private AuthenticationResponse tokens(User user, String refreshToken) {
         return AuthenticationResponse.builder()
-                .token(jwtToken)
+                .token(jwtService.generateToken(user))
+                .refreshToken(refreshToken)
+                .expiresIn(jwtService.getAccessTokenTtl().toSeconds())
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .email(user.getEmail())
                 .build();
     }
+
+    private static ResponseStatusException invalidRefreshToken() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    }
 }
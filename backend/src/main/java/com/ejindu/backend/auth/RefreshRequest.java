@@ -0,0 +1,17 @@
+package com.ejindu.backend.auth;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RefreshRequest {
+
+    @NotBlank
+    private String refreshToken;
+}
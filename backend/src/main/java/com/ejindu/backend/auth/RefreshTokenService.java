@@ -0,0 +1,113 @@
+package com.ejindu.backend.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ejindu.backend.entity.RefreshToken;
+import com.ejindu.backend.repository.RefreshTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-lived opaque refresh tokens. Only their hashes are stored. Each use
+ * rotates the token: the presented one is marked used and a new one from
+ * the same family is returned. Presenting a used token again revokes the
+ * family, so a stolen token works at most until its owner refreshes.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository repository;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter reuseDetected;
+
+    public RefreshTokenService(RefreshTokenRepository repository, MeterRegistry registry,
+            @Value("${jwt.refresh-ttl:P30D}") Duration ttl) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.reuseDetected = registry.counter("auth.refresh.reuse");
+    }
+
+    public record Rotation(Integer userId, String token) {
+    }
+
+    @Transactional
+    public String issue(Integer userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Swaps a refresh token for a new one. Empty when the token is unknown,
+     * expired or already used; in the last case its family is revoked.
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String token) {
+        String hash = hash(token);
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.markUsed(hash, now) == 1) {
+            RefreshToken current = repository.findByTokenHash(hash).orElseThrow();
+            return Optional.of(new Rotation(current.getUserId(), issue(current.getUserId(), current.getFamilyId())));
+        }
+
+        repository.findByTokenHash(hash)
+                .filter(stored -> stored.getUsedAt() != null)
+                .ifPresent(stored -> {
+                    reuseDetected.increment();
+                    repository.deleteByFamilyId(stored.getFamilyId());
+                    log.warn("Refresh token reused for user {}, revoked its family", stored.getUserId());
+                });
+        return Optional.empty();
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        repository.findByTokenHash(hash(token))
+                .ifPresent(stored -> repository.deleteByFamilyId(stored.getFamilyId()));
+    }
+
+    @Scheduled(cron = "${jwt.refresh-purge-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = repository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired refresh tokens", removed);
+    }
+
+    private String issue(Integer userId, UUID familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        repository.save(RefreshToken.builder()
+                .userId(userId)
+                .familyId(familyId)
+                .tokenHash(hash(token))
+                .expiresAt(LocalDateTime.now().plus(ttl))
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
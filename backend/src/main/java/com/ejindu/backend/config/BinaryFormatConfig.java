@@ -0,0 +1,65 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR (application/cbor) and Smile (application/x-jackson-smile) next to
+ * JSON, for clients that send a matching Accept header. Both are copies of
+ * the application ObjectMapper, so the document shape is the same as the
+ * JSON one and only the encoding differs. Serialization is recorded as a
+ * phase event like the JSON converter in {@link JfrConfig}.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())) {
+            @Override
+            protected void writeInternal(@NonNull Object object, @Nullable Type type,
+                    @NonNull HttpOutputMessage outputMessage) throws IOException {
+                timed(object, "cbor", () -> super.writeInternal(object, type, outputMessage));
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())) {
+            @Override
+            protected void writeInternal(@NonNull Object object, @Nullable Type type,
+                    @NonNull HttpOutputMessage outputMessage) throws IOException {
+                timed(object, "smile", () -> super.writeInternal(object, type, outputMessage));
+            }
+        };
+    }
+
+    private static void timed(Object object, String format, Write write) throws IOException {
+        PhaseEvent event = PhaseEvent.begin(PhaseEvent.SERIALIZATION);
+        String outcome = "error";
+        try {
+            write.run();
+            outcome = "ok";
+        } finally {
+            event.end(outcome, PhaseEvent.payloadName(object) + "/" + format, 0);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws IOException;
+    }
+}
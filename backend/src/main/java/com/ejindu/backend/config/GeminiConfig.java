@@ -1,5 +1,6 @@
 package com.ejindu.backend.config;
 
+import java.time.Duration;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -7,21 +8,55 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.ejindu.backend.dto.FieldSelection;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
 @Configuration
 public class GeminiConfig {
 
     @Value("${gemini.key}")
     private String apiKey;
 
+    @Value("${gemini.base-url:https://generativelanguage.googleapis.com/v1beta}")
+    private String baseUrl;
+
+    @Value("${gemini.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${gemini.response-timeout-ms:30000}")
+    private long responseTimeoutMs;
+
+    @Value("${gemini.pool.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${gemini.pool.max-idle-ms:30000}")
+    private long maxIdleMs;
+
     @Bean
     public WebClient geminiClient(WebClient.Builder builder) {
+        ConnectionProvider pool = ConnectionProvider.builder("gemini")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
         return builder
-                .baseUrl("https://generativelanguage.googleapis.com/v1beta")
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .defaultUriVariables(Map.of("key", apiKey))
                 .build();
@@ -31,6 +66,7 @@ public class GeminiConfig {
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
+        FieldSelection.register(mapper);
         return mapper;
     }
 }
@@ -0,0 +1,204 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.service.IdempotencyStore;
+import com.ejindu.backend.service.IdempotencyStore.Stored;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+
+/**
+ * Honours the Idempotency-Key header on writes, after RateLimitFilter. The
+ * first request with a key runs and its successful response is stored; a
+ * retry with the same key gets that response back, marked with
+ * Idempotency-Replayed, without reaching the controller. A retry arriving
+ * while the first is still running waits for it, on a latch when both are
+ * on this node and by polling otherwise. Reusing a key for a different
+ * request, including the same one asking for another representation in
+ * Accept (JSON, CBOR, Smile), is a 422. Failed requests are forgotten so they can be retried.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Idempotency-Key";
+
+    private final IdempotencyStore store;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final List<String> paths;
+    private final long waitMs;
+    private final long pollMs;
+    private final Map<String, CountDownLatch> running = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, MeterRegistry registry,
+            @Value("${idempotency.enabled:true}") boolean enabled,
+            @Value("${idempotency.paths:/api/workout}") List<String> paths,
+            @Value("${idempotency.wait-ms:10000}") long waitMs,
+            @Value("${idempotency.poll-ms:100}") long pollMs) {
+        this.store = store;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.paths = paths;
+        this.waitMs = waitMs;
+        this.pollMs = pollMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String method = request.getMethod();
+        return !enabled || request.getHeader(HEADER) == null
+                || "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)
+                || paths.stream().noneMatch(request.getRequestURI()::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > 255) {
+            write(response, HttpStatus.BAD_REQUEST, HEADER + " must be 1 to 255 characters");
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + waitMs;
+        while (true) {
+            if (store.claim(user.getId(), key)) {
+                execute(request, response, filterChain, user.getId(), key);
+                return;
+            }
+            Optional<Stored> stored = store.find(user.getId(), key);
+            if (stored.isPresent() && stored.get().complete()) {
+                replay(request, response, stored.get());
+                return;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                count("timeout");
+                write(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+                return;
+            }
+            // A vanished claim was released by a failed first attempt; go round and claim it
+            awaitOther(user.getId() + ":" + key, stored.isPresent() ? remaining : Math.min(remaining, pollMs));
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+            Integer userId, String key) throws ServletException, IOException {
+        CountDownLatch done = new CountDownLatch(1);
+        String local = userId + ":" + key;
+        running.put(local, done);
+        ContentCachingRequestWrapper cachedRequest = new ContentCachingRequestWrapper(request);
+        ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(cachedRequest, cachedResponse);
+            // Only successes are remembered; anything else may succeed when retried
+            if (HttpStatusCode.valueOf(cachedResponse.getStatus()).is2xxSuccessful()) {
+                store.complete(userId, key, requestHash(request, cachedRequest.getContentAsByteArray()),
+                        cachedResponse.getStatus(), cachedResponse.getContentType(),
+                        cachedResponse.getContentAsByteArray());
+                stored = true;
+            }
+            count("first");
+        } finally {
+            if (!stored) {
+                store.release(userId, key);
+            }
+            running.remove(local, done);
+            done.countDown();
+            cachedResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, Stored stored)
+            throws IOException {
+        // This copy of the request never reaches a controller, so its body is still unread
+        if (!requestHash(request, request.getInputStream().readAllBytes()).equals(stored.requestHash())) {
+            count("mismatch");
+            write(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+            return;
+        }
+        count("replayed");
+        response.setStatus(stored.status());
+        response.setHeader("Idempotency-Replayed", "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    // Waits for a request running on this node, or just sleeps when it runs elsewhere
+    private void awaitOther(String local, long timeoutMs) throws ServletException {
+        CountDownLatch latch = running.get(local);
+        try {
+            if (latch != null) {
+                latch.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } else {
+                Thread.sleep(Math.min(timeoutMs, pollMs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted waiting for " + HEADER + " " + local, e);
+        }
+    }
+
+    // Accept is part of the request: the stored body is in whatever format it negotiated
+    private static String requestHash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String accept = Objects.requireNonNullElse(request.getHeader(HttpHeaders.ACCEPT), "");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n" + accept + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void count(String outcome) {
+        registry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
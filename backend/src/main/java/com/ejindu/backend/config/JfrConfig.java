@@ -0,0 +1,36 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Configuration
+public class JfrConfig {
+
+    // Replaces Boot's default Jackson converter so response serialization shows up as its own phase
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(@NonNull Object object, @Nullable Type type,
+                    @NonNull HttpOutputMessage outputMessage) throws IOException {
+                PhaseEvent event = PhaseEvent.begin(PhaseEvent.SERIALIZATION);
+                String outcome = "error";
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                    outcome = "ok";
+                } finally {
+                    event.end(outcome, PhaseEvent.payloadName(object), 0);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Actuator endpoint (admin only) for on-demand Flight Recorder captures.
+ * POST starts a recording that stops itself after at most jfr.max-duration
+ * and never keeps more than jfr.max-size on disk, GET downloads what has
+ * been recorded so far, DELETE discards it. Events that would capture
+ * secrets are switched off. The dump can be opened in JDK Mission Control
+ * or converted with async-profiler's jfrconv.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.SystemProcess");
+
+    private final Duration maxDuration;
+    private final long maxSize;
+    private final String settings;
+    private Recording recording;
+    private Path lastDump;
+
+    public JfrRecordingEndpoint(@Value("${jfr.max-duration:5m}") Duration maxDuration,
+            @Value("${jfr.max-size-mb:100}") long maxSizeMb,
+            @Value("${jfr.settings:profile}") String settings) {
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSizeMb * 1024 * 1024;
+        this.settings = settings;
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<Resource> dump() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile("fitlog-", ".jfr");
+        recording.dump(lastDump);
+        return new WebEndpointResponse<>(new FileSystemResource(lastDump));
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Integer seconds) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return describe();
+        }
+        discard();
+
+        Duration duration = seconds == null ? maxDuration : Duration.ofSeconds(seconds);
+        if (duration.compareTo(maxDuration) > 0 || duration.isNegative() || duration.isZero()) {
+            duration = maxDuration;
+        }
+
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("fitlog-on-demand");
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSize);
+        recording.setDuration(duration);
+        // These capture the environment, system properties and command lines, i.e. DB_PASS, JWT_KEY and GEMINI_API_KEY
+        for (String event : SENSITIVE_EVENTS) {
+            recording.disable(event);
+        }
+        recording.enable(PhaseEvent.class).withThreshold(Duration.ZERO);
+        // Only emitted on Java 21+ in virtual-thread mode
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20)).withStackTrace();
+        recording.start();
+        log.info("Started JFR recording for {}", duration);
+        return describe();
+    }
+
+    @DeleteOperation
+    public synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        deleteLastDump();
+    }
+
+    @PreDestroy
+    public void close() {
+        discard();
+    }
+
+    private void deleteLastDump() {
+        if (lastDump != null) {
+            lastDump.toFile().delete();
+            lastDump = null;
+        }
+    }
+
+    private Map<String, Object> describe() {
+        return Map.of(
+                "state", recording.getState().name(),
+                "duration", String.valueOf(recording.getDuration()),
+                "maxSizeBytes", recording.getMaxSize());
+    }
+}
@@ -12,6 +12,10 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.ejindu.backend.service.JwtService;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +29,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final MeterRegistry registry;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -40,18 +45,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         token = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(token);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        PhaseEvent jwt = PhaseEvent.begin(PhaseEvent.JWT);
+        try {
+            userEmail = jwtService.extractUsername(token);
+            outcome = "skipped";
+            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                PhaseEvent lookup = PhaseEvent.begin(PhaseEvent.USER_LOOKUP);
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                lookup.end("found");
+                outcome = "invalid";
+                if (jwtService.isTokenValid(token, userDetails)) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = "valid";
+                }
             }
+        } catch (ExpiredJwtException e) {
+            // Carry on unauthenticated; the entry point answers 401 and the client refreshes
+            outcome = "expired";
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = "invalid";
+        } finally {
+            sample.stop(registry.timer("jwt.validation", "outcome", outcome));
+            jwt.end(outcome);
         }
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,72 @@
+package com.ejindu.backend.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.ejindu.backend.auth.AuthenticationRequest;
+import com.ejindu.backend.auth.AuthenticationResponse;
+import com.ejindu.backend.auth.RegisterRequest;
+import com.ejindu.backend.dto.ExerciseSetDto;
+import com.ejindu.backend.dto.UserDto;
+import com.ejindu.backend.dto.WorkoutDto;
+import com.ejindu.backend.dto.WorkoutExerciseDto;
+import com.ejindu.backend.entity.ExerciseDocument;
+import com.ejindu.backend.entity.ExerciseSet;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.entity.WorkoutExercise;
+
+/**
+ * Reflection hints for the native image. Controller payloads are covered by
+ * Spring's own AOT processing. This adds the types we pass to ObjectMapper
+ * ourselves, such as the entities serialized into Gemini prompts and the
+ * workout documents Hibernate stores as JSON, and the JJWT classes it
+ * loads by name or through ServiceLoader.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.Hints.class)
+@RegisterReflectionForBinding({
+        Workout.class, WorkoutExercise.class, ExerciseSet.class,
+        ExerciseDocument.class, ExerciseDocument.SetDocument.class,
+        WorkoutDto.class, WorkoutExerciseDto.class, ExerciseSetDto.class, UserDto.class,
+        AuthenticationRequest.class, AuthenticationResponse.class, RegisterRequest.class
+})
+public class NativeConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        private static final String[] JJWT_TYPES = {
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        // Filter mix-ins for ?fields=, only looked at reflectively by Jackson
+        private static final String[] MIXIN_TYPES = {
+                "com.ejindu.backend.dto.FieldSelection$WorkoutFilter",
+                "com.ejindu.backend.dto.FieldSelection$ExerciseFilter",
+                "com.ejindu.backend.dto.FieldSelection$SetFilter"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : MIXIN_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type));
+            }
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ejindu.backend.config;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event covering one phase of a request: JWT parsing, the
+ * user lookup, entity to DTO mapping, JSON serialization or a Gemini call.
+ * Attributes never identify the user. When no recording is running the JIT
+ * drops the allocation and commit() is a no-op.
+ */
+@Name("com.ejindu.fitlog.Phase")
+@Label("Request Phase")
+@Category({ "Fitlog" })
+@Description("Time spent in one phase of handling a request")
+@StackTrace(false)
+public class PhaseEvent extends Event {
+
+    public static final String JWT = "jwt";
+    public static final String USER_LOOKUP = "user-lookup";
+    public static final String MAPPING = "mapping";
+    public static final String SERIALIZATION = "serialization";
+    public static final String GEMINI = "gemini";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Detail")
+    String detail;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Items")
+    @Description("Exercises mapped, or prompt characters for Gemini calls")
+    int items;
+
+    public static PhaseEvent begin(String phase) {
+        PhaseEvent event = new PhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void end(String outcome) {
+        end(outcome, null, 0);
+    }
+
+    public void end(String outcome, String detail, int items) {
+        if (!shouldCommit()) {
+            return;
+        }
+        this.outcome = outcome;
+        this.detail = detail;
+        this.items = items;
+        commit();
+    }
+
+    // Filtered responses arrive wrapped, name what is actually written
+    static String payloadName(Object body) {
+        Object value = body instanceof MappingJacksonValue wrapped ? wrapped.getValue() : body;
+        return value.getClass().getSimpleName();
+    }
+}
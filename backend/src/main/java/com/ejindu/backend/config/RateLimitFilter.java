@@ -0,0 +1,118 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.service.RateLimitBackend;
+import com.ejindu.backend.service.RateLimitBackend.Limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+
+/**
+ * Runs after JwtAuthenticationFilter and applies a per-user and a global
+ * token bucket to each endpoint class. Analysis calls burn Gemini quota and
+ * get the tightest limits; writes get looser ones; reads are not limited.
+ * A request turned away by the global bucket gets its user token back.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        ANALYSIS,
+        WRITE
+    }
+
+    private final RateLimitBackend backend;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final Limit analysisPerUser;
+    private final Limit analysisGlobal;
+    private final Limit writePerUser;
+    private final Limit writeGlobal;
+
+    public RateLimitFilter(RateLimitBackend backend, MeterRegistry registry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.analysis.user-capacity:5}") long analysisUserCapacity,
+            @Value("${rate-limit.analysis.user-refill-per-minute:2}") double analysisUserRefill,
+            @Value("${rate-limit.analysis.global-capacity:60}") long analysisGlobalCapacity,
+            @Value("${rate-limit.analysis.global-refill-per-minute:60}") double analysisGlobalRefill,
+            @Value("${rate-limit.write.user-capacity:30}") long writeUserCapacity,
+            @Value("${rate-limit.write.user-refill-per-minute:30}") double writeUserRefill,
+            @Value("${rate-limit.write.global-capacity:1000}") long writeGlobalCapacity,
+            @Value("${rate-limit.write.global-refill-per-minute:1000}") double writeGlobalRefill) {
+        this.backend = backend;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.analysisPerUser = new Limit(analysisUserCapacity, analysisUserRefill);
+        this.analysisGlobal = new Limit(analysisGlobalCapacity, analysisGlobalRefill);
+        this.writePerUser = new Limit(writeUserCapacity, writeUserRefill);
+        this.writeGlobal = new Limit(writeGlobalCapacity, writeGlobalRefill);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        EndpointClass endpoint = classify(request);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (!enabled || endpoint == null || auth == null || !(auth.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Limit perUser = endpoint == EndpointClass.ANALYSIS ? analysisPerUser : writePerUser;
+        Limit global = endpoint == EndpointClass.ANALYSIS ? analysisGlobal : writeGlobal;
+
+        // The user's bucket goes first so one user's burst can't drain the global one
+        String userKey = endpoint + ":user:" + user.getId();
+        long waitMs = perUser.enabled() ? backend.tryConsume(userKey, perUser) : 0;
+        if (waitMs == 0 && global.enabled()) {
+            waitMs = backend.tryConsume(endpoint + ":global", global);
+            if (waitMs > 0 && perUser.enabled()) {
+                backend.refund(userKey, perUser);
+            }
+        }
+        if (waitMs > 0) {
+            reject(response, endpoint, waitMs);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/gemini/")) {
+            return EndpointClass.ANALYSIS;
+        }
+        boolean write = !"GET".equals(request.getMethod()) && !"OPTIONS".equals(request.getMethod())
+                && !"HEAD".equals(request.getMethod());
+        if (write && (path.startsWith("/api/workout") || path.startsWith("/api/user"))) {
+            return EndpointClass.WRITE;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, EndpointClass endpoint, long waitMs) throws IOException {
+        registry.counter("rate_limit.rejected", "endpoint", endpoint.name().toLowerCase()).increment();
+        long retryAfter = Math.max(1, (long) Math.ceil(Math.min(waitMs, 86_400_000L) / 1000.0));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Too many requests, try again in " + retryAfter + "s\"}");
+    }
+}
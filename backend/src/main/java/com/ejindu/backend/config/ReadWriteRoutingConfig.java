@@ -0,0 +1,139 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.ejindu.backend.entity.User;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sends read-only transactions to Postgres replicas when
+ * datasource.replicas.urls is set. Connections are fetched lazily, so by
+ * the time one is needed Hibernate has flagged it read-only and
+ * LazyConnectionDataSourceProxy picks the replica side. Everything else,
+ * including reads by users who just wrote, stays on the primary; see
+ * ReplicaSet for how that carries across nodes.
+ * <p>
+ * This needs spring.jpa.open-in-view=false: a request-scoped session would
+ * keep its first connection, replica or not, for every later transaction.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment env, MeterRegistry registry,
+            @Value("${datasource.replicas.urls}") List<String> urls,
+            @Value("${datasource.replicas.username:${spring.datasource.username}}") String username,
+            @Value("${datasource.replicas.password:${spring.datasource.password}}") String password,
+            @Value("${datasource.replicas.max-lag-ms:2000}") long maxLagMs,
+            @Value("${datasource.replicas.stickiness-ms:5000}") long stickinessMs) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = pool(properties, env);
+            pool.setJdbcUrl(urls.get(i));
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setPoolName("replica-" + i);
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            pools.add(pool);
+        }
+        return new ReplicaSet(pools, Duration.ofMillis(maxLagMs), Duration.ofMillis(stickinessMs), registry);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment env, ReplicaSet replicas) {
+        HikariDataSource primary = pool(properties, env);
+        primary.setPoolName("primary");
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return target().getConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return target().getConnection(username, password);
+            }
+
+            private DataSource target() {
+                DataSource replica = replicas.pick(currentUserId());
+                return replica != null ? replica : primary;
+            }
+        });
+        return routing;
+    }
+
+    // Marks the caller as a recent writer once a mutating request has succeeded, on this node and,
+    // through the header the client sends back, on every other
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter(ReplicaSet replicas) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(@NonNull HttpServletRequest request,
+                    @NonNull HttpServletResponse response,
+                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+                String method = request.getMethod();
+                boolean write = !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+                Integer userId = currentUserId();
+                if (write && userId != null) {
+                    // Before the body commits the response; a write that fails only costs some primary reads
+                    response.setHeader(ReplicaSet.HEADER, String.valueOf(replicas.stickyUntil()));
+                }
+
+                replicas.pin(request.getHeader(ReplicaSet.HEADER));
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    replicas.unpin();
+                }
+
+                if (write && userId != null && response.getStatus() < 400) {
+                    replicas.markWrite(userId);
+                }
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment env) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        return pool;
+    }
+
+    private static Integer currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ejindu.backend.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The read replicas plus what decides whether one may serve a read: replicas
+ * lagging more than max-lag are taken out of rotation until they catch up,
+ * and users who wrote within the stickiness window keep reading from the
+ * primary so they always see their own changes.
+ * <p>
+ * Each node remembers its own recent writers, but a client's next read may
+ * land on another node. So writes also answer with a Read-Your-Writes-Until
+ * header (epoch millis); a client that sends it back has that request's
+ * reads pinned to the primary on whichever node serves it.
+ */
+@Slf4j
+public class ReplicaSet implements DisposableBean {
+
+    public static final String HEADER = "Read-Your-Writes-Until";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration stickiness;
+    private final Cache<Integer, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaSet(List<HikariDataSource> pools, Duration maxLag, Duration stickiness, MeterRegistry registry) {
+        this.replicas = pools.stream().map(Replica::new).toList();
+        this.maxLag = maxLag;
+        this.stickiness = stickiness;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .maximumSize(100_000)
+                .build();
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMs)
+                    .tag("replica", replica.pool.getPoolName())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        }
+    }
+
+    public void markWrite(Integer userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    /** The Read-Your-Writes-Until value for a write made now. */
+    long stickyUntil() {
+        return System.currentTimeMillis() + stickiness.toMillis();
+    }
+
+    /** Pins this thread's reads to the primary when the client's header says it wrote recently. */
+    void pin(String header) {
+        if (header == null) {
+            return;
+        }
+        try {
+            if (Long.parseLong(header.trim()) > System.currentTimeMillis()) {
+                PINNED.set(Boolean.TRUE);
+            }
+        } catch (NumberFormatException e) {
+            // Not ours; read from a replica as usual
+        }
+    }
+
+    void unpin() {
+        PINNED.remove();
+    }
+
+    /** A healthy replica in round-robin order, or null when the read must go to the primary. */
+    DataSource pick(Integer userId) {
+        if (PINNED.get() != null || userId != null && recentWriters.getIfPresent(userId) != null) {
+            return null;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                return replica.pool;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-ms:5000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            try (Connection c = replica.pool.getConnection();
+                    Statement st = c.createStatement();
+                    // Zero when nothing has been written since the last replayed transaction
+                    ResultSet rs = st.executeQuery("""
+                            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                                   ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END""")) {
+                rs.next();
+                replica.lagMs = rs.getLong(1);
+                boolean healthy = replica.lagMs <= maxLag.toMillis();
+                if (healthy != replica.healthy) {
+                    log.warn("Replica {} {} rotation, lag {} ms", replica.pool.getPoolName(),
+                            healthy ? "back in" : "taken out of", replica.lagMs);
+                }
+                replica.healthy = healthy;
+            } catch (SQLException e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} unreachable, taken out of rotation: {}", replica.pool.getPoolName(),
+                            e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(r -> r.pool.close());
+    }
+
+    private static final class Replica {
+        final HikariDataSource pool;
+        volatile boolean healthy = true;
+        volatile long lagMs;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
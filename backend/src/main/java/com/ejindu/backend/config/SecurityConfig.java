@@ -2,18 +2,24 @@ package com.ejindu.backend.config;
 
 import java.util.Arrays;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.ejindu.backend.enums.Role;
+
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -22,6 +28,8 @@ import lombok.RequiredArgsConstructor;
 public class SecurityConfig {
 
         private final JwtAuthenticationFilter jwtAuthFilter;
+        private final RateLimitFilter rateLimitFilter;
+        private final IdempotencyFilter idempotencyFilter;
         private final AuthenticationProvider authenticationProvider;
 
         @Bean
@@ -30,11 +38,22 @@ public class SecurityConfig {
                 http.csrf(csrf -> csrf.disable());
                 http.authorizeHttpRequests(auth -> auth
                                 .requestMatchers("/error").permitAll() // <-- add this
+                                // scrapers and probes stay open; metrics, jfr and the rest need an admin token,
+                                // also when management.server.port is left on the public port
+                                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(Role.ADMIN.name())
+                                // streamed responses finish on an async dispatch, already authorised on the way in
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/auth/**").permitAll()
                                 .anyRequest().authenticated());
                 http.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+                // 401 rather than 403 for missing or expired tokens, so clients know to refresh
+                http.exceptionHandling(ex -> ex.authenticationEntryPoint(
+                                new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
                 http.authenticationProvider(authenticationProvider)
-                                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+                                .addFilterAfter(idempotencyFilter, RateLimitFilter.class);
                 return http.build();
         }
 
@@ -45,7 +64,8 @@ public class SecurityConfig {
                                 "https://fitlog-iota.vercel.app"));
                 configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                 configuration.setAllowedHeaders(Arrays.asList("*"));
-                configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+                configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Retry-After",
+                                "Idempotency-Replayed", ReplicaSet.HEADER));
                 configuration.setAllowCredentials(true);
                 configuration.setMaxAge(3600L);
 
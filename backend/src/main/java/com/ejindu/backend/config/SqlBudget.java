@@ -0,0 +1,26 @@
+package com.ejindu.backend.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request to this endpoint may run,
+ * including the user lookup done by JwtAuthenticationFilter. Exceeding it is
+ * logged, or fails the request when sql.budget.enforce is true (as in tests),
+ * so N+1 regressions surface immediately.
+ *
+ * Endpoints returning a list of any length set perBatch: batch fetching
+ * costs a few statements per hibernate.default_batch_fetch_size items, so
+ * the budget grows by perBatch for each such batch in the response. Their
+ * check runs once the result is known rather than statement by statement.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int value();
+
+    int perBatch() default 0;
+}
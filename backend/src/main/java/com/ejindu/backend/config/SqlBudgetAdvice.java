@@ -0,0 +1,65 @@
+package com.ejindu.backend.config;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.ejindu.backend.config.SqlStats.SqlBudgetExceededException;
+
+import lombok.NonNull;
+
+/**
+ * Settles @SqlBudget(perBatch) once the handler has returned: counts the
+ * items in the body, grows the budget by perBatch for every batch fetch
+ * they need, and fails the request before anything is written when
+ * enforcement is on.
+ */
+@ControllerAdvice
+public class SqlBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final int batchSize;
+    private final boolean enforce;
+
+    public SqlBudgetAdvice(
+            @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:64}") int batchSize,
+            @Value("${sql.budget.enforce:false}") boolean enforce) {
+        this.batchSize = batchSize;
+        this.enforce = enforce;
+    }
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        SqlBudget budget = returnType.getMethodAnnotation(SqlBudget.class);
+        return budget != null && budget.perBatch() > 0;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType,
+            @NonNull MediaType selectedContentType,
+            @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        SqlStats.Request stats = SqlStats.current();
+        if (stats != null) {
+            int items = items(body);
+            stats.setBatches((items + batchSize - 1) / batchSize);
+            if (enforce && stats.isExceeded()) {
+                throw new SqlBudgetExceededException(stats, items);
+            }
+        }
+        return body;
+    }
+
+    private static int items(Object body) {
+        Object value = body instanceof MappingJacksonValue wrapper ? wrapper.getValue() : body;
+        return value instanceof Collection<?> collection ? collection.size() : 1;
+    }
+}
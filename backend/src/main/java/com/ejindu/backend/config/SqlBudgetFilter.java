@@ -0,0 +1,84 @@
+package com.ejindu.backend.config;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Wraps the whole request, security filters included, and records how many
+ * statements it ran and how long they took, tagged by endpoint pattern.
+ * Also acts as the interceptor that picks up the handler's @SqlBudget.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter implements HandlerInterceptor {
+
+    private final MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        SqlStats.Request stats = SqlStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStats.end();
+            record(request, stats);
+        }
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        SqlStats.Request stats = SqlStats.current();
+        if (stats != null && handler instanceof HandlerMethod method) {
+            SqlBudget budget = method.getMethodAnnotation(SqlBudget.class);
+            if (budget != null) {
+                stats.setBudget(budget.value(), budget.perBatch());
+            }
+        }
+        return true;
+    }
+
+    private void record(HttpServletRequest request, SqlStats.Request stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("http.server.sql.statements")
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.sql.time")
+                .tag("uri", uri)
+                .register(registry)
+                .record(Duration.ofMillis(stats.getElapsedMs()));
+
+        if (stats.isExceeded()) {
+            log.warn("{} {} ran {} statements, over its budget of {}",
+                    request.getMethod(), uri, stats.getStatements(), stats.getAllowed());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ejindu.backend.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration
+@RequiredArgsConstructor
+public class SqlMonitoringConfig implements WebMvcConfigurer {
+
+    private final SqlBudgetFilter sqlBudgetFilter;
+
+    @Bean
+    public static BeanPostProcessor sqlStatsDataSourceProxy(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof ProxyDataSource)) {
+                    SqlStats stats = new SqlStats(
+                            env.getProperty("sql.slow-query-threshold-ms", Long.class, 200L),
+                            env.getProperty("sql.budget.enforce", Boolean.class, false));
+                    return ProxyDataSourceBuilder.create(ds)
+                            .name(beanName)
+                            .listener(stats)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlBudgetFilter);
+    }
+}
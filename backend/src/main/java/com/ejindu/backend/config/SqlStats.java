@@ -0,0 +1,103 @@
+package com.ejindu.backend.config;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Counts statements and DB time for the current request thread and logs
+ * statements slower than the threshold. Only the SQL text with its ?
+ * placeholders is logged, never the bound values.
+ */
+@Slf4j
+public class SqlStats implements QueryExecutionListener {
+
+    private static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+    private final long slowThresholdMs;
+    private final boolean enforce;
+
+    public SqlStats(long slowThresholdMs, boolean enforce) {
+        this.slowThresholdMs = slowThresholdMs;
+        this.enforce = enforce;
+    }
+
+    static Request begin() {
+        Request request = new Request();
+        CURRENT.set(request);
+        return request;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static Request current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() >= slowThresholdMs) {
+            queryInfoList.forEach(q -> log.warn("Slow SQL ({} ms, {} param set(s)): {}",
+                    execInfo.getElapsedTime(), q.getParametersList().size(), q.getQuery()));
+        }
+
+        Request request = CURRENT.get();
+        if (request == null) {
+            return;
+        }
+        request.statements++;
+        request.elapsedMs += execInfo.getElapsedTime();
+        // A budget that scales with the result can only be judged once the result is known
+        if (enforce && request.perBatch == 0 && request.isExceeded()) {
+            throw new SqlBudgetExceededException(request.budget, queryInfoList.get(0).getQuery());
+        }
+    }
+
+    @Getter
+    static class Request {
+        private int statements;
+        private long elapsedMs;
+        private int budget;
+        private int perBatch;
+        private int batches;
+
+        void setBudget(int budget, int perBatch) {
+            this.budget = budget;
+            this.perBatch = perBatch;
+        }
+
+        void setBatches(int batches) {
+            this.batches = batches;
+        }
+
+        int getAllowed() {
+            return budget + perBatch * batches;
+        }
+
+        boolean isExceeded() {
+            return budget > 0 && statements > getAllowed();
+        }
+    }
+
+    public static class SqlBudgetExceededException extends RuntimeException {
+
+        SqlBudgetExceededException(int budget, String sql) {
+            super("Request exceeded its SQL budget of " + budget + " statements at: " + sql);
+        }
+
+        SqlBudgetExceededException(Request request, int items) {
+            super("Request ran " + request.getStatements() + " statements for " + items
+                    + " items, over its SQL budget of " + request.getAllowed());
+        }
+    }
+}
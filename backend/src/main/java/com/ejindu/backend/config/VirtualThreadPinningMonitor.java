@@ -0,0 +1,65 @@
+package com.ejindu.backend.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In virtual-thread mode, streams the JDK's VirtualThreadPinned events.
+ * These fire when a virtual thread blocks while holding a monitor, for
+ * example inside a synchronized block in a driver, and so ties up its
+ * carrier thread. Each one bumps jvm.threads.virtual.pinned and logs the
+ * frame that blocked, so the offending library shows up in metrics and logs.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private final Counter pinned;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+            @Value("${virtual-threads.pinning-threshold-ms:20}") long thresholdMs) {
+        this.pinned = registry.counter("jvm.threads.virtual.pinned");
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if (log.isWarnEnabled() && event.getStackTrace() != null) {
+            RecordedFrame top = event.getStackTrace().getFrames().stream()
+                    .filter(RecordedFrame::isJavaFrame)
+                    .filter(f -> !f.getMethod().getType().getName().startsWith("java."))
+                    .findFirst()
+                    .orElse(null);
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(),
+                    top == null ? "unknown" : top.getMethod().getType().getName() + "." + top.getMethod().getName());
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.ejindu.backend.auth.AuthenticationRequest;
 import com.ejindu.backend.auth.AuthenticationResponse;
 import com.ejindu.backend.auth.AuthenticationService;
+import com.ejindu.backend.auth.RefreshRequest;
 import com.ejindu.backend.auth.RegisterRequest;
 import com.ejindu.backend.dto.UserDto;
 import com.ejindu.backend.entity.User;
@@ -35,6 +36,17 @@ public class AuthenticationController {
         return ResponseEntity.ok(authService.authenticate(request));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshRequest request) {
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     public ResponseEntity<UserDto> getCurrentUser(Authentication auth) {
         User user = (User) auth.getPrincipal();
@@ -5,9 +5,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -15,19 +15,22 @@ import org.springframework.web.server.ResponseStatusException;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.entity.Workout;
 import com.ejindu.backend.enums.Goal;
-import com.ejindu.backend.repository.WorkoutRepository;
-import com.ejindu.backend.service.GeminiService;
+import com.ejindu.backend.service.AnalysisService;
+import com.ejindu.backend.service.WorkoutService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/gemini")
 @RequiredArgsConstructor
 public class GeminiController {
 
-        private final WorkoutRepository workoutRepo;
-        private final GeminiService gemini;
+        private final WorkoutService workoutService;
+        private final AnalysisService analysis;
 
         @PostMapping(value = "/workout/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
         public ResponseEntity<Map<String, String>> analyseWorkout(
@@ -36,14 +39,11 @@ public class GeminiController {
                         Authentication auth) {
                 User owner = (User) auth.getPrincipal();
 
-                Workout w = workoutRepo.findById(id)
-                                .filter(wo -> wo.getUser().getId().equals(owner.getId()))
-                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+                Workout w = workoutService.getForAnalysis(id, owner);
 
-                return gemini.analyseSingle(w, goal)
+                return analysis.analyseSingle(w, goal)
                                 .map(result -> ResponseEntity.ok(Map.of("analysis", result)))
-                                .doOnError(error -> System.out
-                                                .println("❌ GeminiController - Error: " + error.getMessage()))
+                                .doOnError(error -> log.warn("Workout analysis failed: {}", error.getMessage()))
                                 .block();
         }
 
@@ -54,14 +54,56 @@ public class GeminiController {
                         Authentication auth) {
                 User owner = (User) auth.getPrincipal();
 
-                List<Workout> list = workoutRepo.findByUserAndDateBetween(
-                                owner, req.from(), req.to());
+                List<Workout> list = workoutService.getForAnalysis(owner, req.from(), req.to());
 
-                return gemini.analysePeriod(list, req.from(), req.to(), goal)
+                return analysis.analysePeriod(list, req.from(), req.to(), goal)
                                 .map(result -> ResponseEntity.ok(Map.of("analysis", result)))
                                 .block();
         }
 
+        @PostMapping(value = "/workout/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public Flux<ServerSentEvent<String>> streamWorkout(
+                        @PathVariable UUID id,
+                        @RequestParam(required = false) Goal goal,
+                        Authentication auth) {
+                User owner = (User) auth.getPrincipal();
+
+                Workout w = workoutService.getForAnalysis(id, owner);
+
+                return toEvents(analysis.streamSingle(w, goal));
+        }
+
+        @PostMapping(value = "/period/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public Flux<ServerSentEvent<String>> streamRange(
+                        @Valid @RequestBody DateRange req,
+                        @RequestParam(required = false) Goal goal,
+                        Authentication auth) {
+                User owner = (User) auth.getPrincipal();
+
+                List<Workout> list = workoutService.getForAnalysis(owner, req.from(), req.to());
+
+                return toEvents(analysis.streamPeriod(list, req.from(), req.to(), goal));
+        }
+
+        private Flux<ServerSentEvent<String>> toEvents(Flux<String> chunks) {
+                return chunks
+                                .map(chunk -> ServerSentEvent.builder(chunk).event("chunk").build())
+                                .concatWithValues(ServerSentEvent.<String>builder().event("done").build())
+                                .onErrorResume(error -> {
+                                        log.warn("Streamed analysis failed", error);
+                                        return Flux.just(ServerSentEvent.builder(clientMessage(error))
+                                                        .event("error").build());
+                                });
+        }
+
+        // Our own status reasons (quota, busy) are meant for users; anything else may carry upstream details
+        private static String clientMessage(Throwable error) {
+                if (error instanceof ResponseStatusException status && status.getReason() != null) {
+                        return status.getReason();
+                }
+                return "Analysis failed, please try again";
+        }
+
         public record DateRange(LocalDate from, LocalDate to) {
         }
 }
@@ -1,5 +1,6 @@
 package com.ejindu.backend.controller;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +14,7 @@ import com.ejindu.backend.dto.UserDto;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.mapper.UserMapper;
 import com.ejindu.backend.repository.UserRepository;
+import com.ejindu.backend.service.AccountService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,7 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final AccountService accountService;
 
     @GetMapping("/profile")
     public ResponseEntity<UserDto> getProfile(Authentication auth) {
@@ -50,7 +53,11 @@ public class UserController {
     @DeleteMapping("/account")
     public ResponseEntity<String> deleteAccount(Authentication auth) {
         User user = (User) auth.getPrincipal();
-        userRepository.delete(user);
+        if (accountService.requiresBackgroundPurge(user)) {
+            accountService.purgeInBackground(user.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Account deletion scheduled");
+        }
+        accountService.purge(user.getId());
         return ResponseEntity.ok("Account deleted successfully");
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.ejindu.backend.controller;
 
+import com.ejindu.backend.config.SqlBudget;
 import com.ejindu.backend.service.CalendarService;
 import com.ejindu.backend.service.WorkoutService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import com.ejindu.backend.dto.FieldSelection;
 import com.ejindu.backend.dto.WorkoutDto;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.repository.UserRepository;
@@ -30,6 +33,7 @@ public class WorkoutController {
     private final CalendarService calendarService;
 
     @PostMapping
+    @SqlBudget(15)
     public ResponseEntity<WorkoutDto> createWorkout(@Valid @RequestBody WorkoutDto workoutDto, Authentication auth) {
         User user = (User) auth.getPrincipal();
         WorkoutDto saved = workoutService.createWorkout(workoutDto, user);
@@ -37,23 +41,46 @@ public class WorkoutController {
     }
 
     @GetMapping
-    ResponseEntity<List<WorkoutDto>> getWorkoutsBetween(@RequestParam LocalDate from,
+    @SqlBudget(value = 4, perBatch = 4)
+    ResponseEntity<MappingJacksonValue> getWorkoutsBetween(@RequestParam LocalDate from,
                                                                @RequestParam LocalDate to,
+                                                               @RequestParam(required = false) String fields,
+                                                               @RequestParam(required = false) Integer depth,
                                                                Authentication auth) {
         User user = (User) auth.getPrincipal();
-        List<WorkoutDto> workoutsHistory = workoutService.getWorkoutsBetween(user, from, to);
+        FieldSelection selection = FieldSelection.parse(fields, depth);
+        List<WorkoutDto> workoutsHistory = workoutService.getWorkoutsBetween(user, from, to, selection.depth());
 
-        return ResponseEntity.ok(workoutsHistory);
+        return ResponseEntity.ok(selection.apply(workoutsHistory));
+    }
+
+    @GetMapping("/exercise")
+    @SqlBudget(value = 4, perBatch = 4)
+    ResponseEntity<MappingJacksonValue> getWorkoutsWithExercise(@RequestParam String name,
+                                                             @RequestParam(defaultValue = "20") int limit,
+                                                             @RequestParam(required = false) String fields,
+                                                             @RequestParam(required = false) Integer depth,
+                                                             Authentication auth) {
+        User user = (User) auth.getPrincipal();
+        FieldSelection selection = FieldSelection.parse(fields, depth);
+        return ResponseEntity.ok(selection.apply(
+                workoutService.getWorkoutsWithExercise(user, name, limit, selection.depth())));
     }
 
     @GetMapping("/{id}")
-    ResponseEntity<WorkoutDto> getWorkoutById(@PathVariable UUID id, Authentication auth) {
+    @SqlBudget(5)
+    ResponseEntity<MappingJacksonValue> getWorkoutById(@PathVariable UUID id,
+                                                       @RequestParam(required = false) String fields,
+                                                       @RequestParam(required = false) Integer depth,
+                                                       Authentication auth) {
         User user = (User) auth.getPrincipal();
-        WorkoutDto workout = workoutService.getWorkoutById(id, user);
-        return ResponseEntity.ok(workout);
+        FieldSelection selection = FieldSelection.parse(fields, depth);
+        WorkoutDto workout = workoutService.getWorkoutById(id, user, selection.depth());
+        return ResponseEntity.ok(selection.apply(workout));
     }
 
     @DeleteMapping(path = "/{id}")
+    @SqlBudget(10)
     ResponseEntity<String> deleteWorkout(@PathVariable UUID id, Authentication auth) {
         User user = (User) auth.getPrincipal();
         workoutService.deleteWorkout(id, user);
@@ -62,6 +89,7 @@ public class WorkoutController {
 
 
     @GetMapping("/calendar")
+    @SqlBudget(3)
     public ResponseEntity<Map<LocalDate, Long>> getMonthlyHeatmap(
             @RequestParam String month,            // expect "YYYY-MM"
             Authentication auth) {
@@ -75,6 +103,7 @@ public class WorkoutController {
     }
 
     @PutMapping("/{id}")
+    @SqlBudget(20)
     public ResponseEntity<WorkoutDto> updateWorkout(
             @PathVariable UUID id,
             @Valid @RequestBody WorkoutDto dto,
@@ -0,0 +1,135 @@
+package com.ejindu.backend.dto;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * What a workout read asked for with ?fields= and ?depth=. Depth says how
+ * many levels are loaded (0 workout, 1 exercises, 2 sets); fields lists the
+ * attributes to serialize as paths such as name,date,exercises.name or
+ * exercises.sets.reps. Naming a collection on its own selects everything
+ * under it. Without fields all attributes down to the depth are returned;
+ * with fields the depth defaults to the deepest level they mention.
+ */
+public record FieldSelection(int depth, Set<String> workout, Set<String> exercise, Set<String> set) {
+
+    public static final int FULL_DEPTH = 2;
+
+    private static final String WORKOUT_FILTER = "workoutFields";
+    private static final String EXERCISE_FILTER = "exerciseFields";
+    private static final String SET_FILTER = "setFields";
+
+    private static final Set<String> WORKOUT_FIELDS = Set.of("id", "name", "date", "notes", "exercises");
+    private static final Set<String> EXERCISE_FIELDS = Set.of("id", "name", "sets");
+    private static final Set<String> SET_FIELDS = Set.of("id", "reps", "weightLbs");
+
+    public static FieldSelection parse(String fields, Integer depth) {
+        if (depth != null && (depth < 0 || depth > FULL_DEPTH)) {
+            throw badRequest("depth must be between 0 and " + FULL_DEPTH);
+        }
+        if (fields == null || fields.isBlank()) {
+            return new FieldSelection(depth == null ? FULL_DEPTH : depth, Set.of(), Set.of(), Set.of());
+        }
+
+        Set<String> workout = new HashSet<>();
+        Set<String> exercise = new HashSet<>();
+        Set<String> set = new HashSet<>();
+        boolean allExercises = false;
+        boolean allSets = false;
+        int deepest = 0;
+
+        for (String field : fields.split(",")) {
+            String[] path = field.trim().split("\\.");
+            if (!WORKOUT_FIELDS.contains(path[0]) || path.length > 3) {
+                throw badRequest("Unknown field " + field.trim());
+            }
+            workout.add(path[0]);
+            if (!path[0].equals("exercises")) {
+                if (path.length > 1) {
+                    throw badRequest("Unknown field " + field.trim());
+                }
+                continue;
+            }
+            if (path.length == 1) {
+                allExercises = true;
+                deepest = FULL_DEPTH;
+                continue;
+            }
+            if (!EXERCISE_FIELDS.contains(path[1]) || (path.length == 3 && !path[1].equals("sets"))) {
+                throw badRequest("Unknown field " + field.trim());
+            }
+            exercise.add(path[1]);
+            deepest = Math.max(deepest, path[1].equals("sets") ? 2 : 1);
+            if (path.length == 2) {
+                allSets |= path[1].equals("sets");
+            } else if (SET_FIELDS.contains(path[2])) {
+                set.add(path[2]);
+            } else {
+                throw badRequest("Unknown field " + field.trim());
+            }
+        }
+
+        return new FieldSelection(depth == null ? deepest : Math.min(depth, deepest), workout,
+                allExercises ? Set.of() : exercise,
+                allExercises || allSets ? Set.of() : set);
+    }
+
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(WORKOUT_FILTER, filter(workout, depth < 1 ? "exercises" : null))
+                .addFilter(EXERCISE_FILTER, filter(exercise, depth < 2 ? "sets" : null))
+                .addFilter(SET_FILTER, filter(set, null)));
+        return value;
+    }
+
+    private static SimpleBeanPropertyFilter filter(Set<String> include, String exclude) {
+        if (include.isEmpty()) {
+            return exclude == null
+                    ? SimpleBeanPropertyFilter.serializeAll()
+                    : SimpleBeanPropertyFilter.serializeAllExcept(exclude);
+        }
+        Set<String> kept = new HashSet<>(include);
+        kept.remove(exclude);
+        return SimpleBeanPropertyFilter.filterOutAllExcept(kept);
+    }
+
+    /**
+     * Attaches the filters to the DTOs through mix-ins, so other mappers see
+     * plain classes, and serializes everything when a response sets none.
+     */
+    public static void register(ObjectMapper mapper) {
+        FilterProvider everything = new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+        mapper.addMixIn(WorkoutDto.class, WorkoutFilter.class)
+                .addMixIn(WorkoutExerciseDto.class, ExerciseFilter.class)
+                .addMixIn(ExerciseSetDto.class, SetFilter.class)
+                .setFilterProvider(everything);
+    }
+
+    private static ResponseStatusException badRequest(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+
+    @JsonFilter(WORKOUT_FILTER)
+    private interface WorkoutFilter {
+    }
+
+    @JsonFilter(EXERCISE_FILTER)
+    private interface ExerciseFilter {
+    }
+
+    @JsonFilter(SET_FILTER)
+    private interface SetFilter {
+    }
+}
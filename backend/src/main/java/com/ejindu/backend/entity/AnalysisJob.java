@@ -0,0 +1,50 @@
+package com.ejindu.backend.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outbox row asking for a workout's analysis to be pre-computed. A claimed
+ * job has its availableAt pushed forward by the worker lease, so a crashed
+ * node's jobs become visible again once the lease runs out.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "analysis_job", indexes = @Index(columnList = "available_at"))
+public class AnalysisJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(unique = true, nullable = false)
+    private UUID workoutId;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    private int attempts;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
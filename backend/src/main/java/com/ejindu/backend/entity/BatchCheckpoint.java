@@ -0,0 +1,45 @@
+package com.ejindu.backend.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a long-running batch job, so a restarted node resumes where the
+ * last one stopped. lockedUntil is a lease that keeps a single node running
+ * the job at a time.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "batch_checkpoint")
+public class BatchCheckpoint {
+
+    @Id
+    private String jobName;
+
+    private LocalDate periodStart;
+
+    private Integer lastUserId;
+
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ejindu.backend.entity;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One exercise with its sets, as stored in workout.document when workouts
+ * use DOCUMENT storage.
+ */
+public record ExerciseDocument(UUID id, String name, List<SetDocument> sets) {
+
+    public record SetDocument(UUID id, int reps, int weightLbs) {
+    }
+
+    // Detached entity view, so code reading w.getExercises() works in both modes
+    WorkoutExercise toEntity(Workout workout) {
+        WorkoutExercise exercise = WorkoutExercise.builder()
+                .id(id)
+                .name(name)
+                .workout(workout)
+                .build();
+        exercise.setSets(sets.stream()
+                .map(s -> ExerciseSet.builder()
+                        .id(s.id())
+                        .reps(s.reps())
+                        .weightLbs(s.weightLbs())
+                        .workoutExercise(exercise)
+                        .build())
+                .toList());
+        return exercise;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ejindu.backend.entity;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Gemini token usage per user per day, written in batches by
+ * GeminiUsageService.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "gemini_usage", uniqueConstraints = @UniqueConstraint(columnNames = { "user_id", "usage_date" }))
+public class GeminiUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private Integer userId;
+
+    private LocalDate usageDate;
+
+    private long calls;
+
+    private long promptTokens;
+
+    private long responseTokens;
+}
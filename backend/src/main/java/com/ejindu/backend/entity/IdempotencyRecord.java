@@ -0,0 +1,55 @@
+package com.ejindu.backend.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A write sent with an Idempotency-Key header. The row is claimed before the
+ * request runs (status still null) and completed with the gzipped response,
+ * which is replayed to retries until expiresAt. Read and written through
+ * IdempotencyStore; the entity only describes the table.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_key",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "user_id", "idempotency_key" }),
+        indexes = @Index(columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private Integer userId;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    private String requestHash;
+
+    private Integer status;
+
+    private String contentType;
+
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime claimedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,40 @@
+package com.ejindu.backend.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Workout feedback shared between users with identical workouts. The text is
+ * stored with the athlete's name replaced by a placeholder.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "shared_analysis")
+public class SharedAnalysis {
+
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    @Column(columnDefinition = "TEXT")
+    private String analysis;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
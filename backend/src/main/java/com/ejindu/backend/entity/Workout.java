@@ -4,12 +4,20 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -23,7 +31,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "workout")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "workout")
+@Table(name = "workout", indexes = @Index(name = "workout_user_date_idx", columnList = "user_id, date"))
 public class Workout {
 
     @Id
@@ -40,7 +50,21 @@ public class Workout {
     @JsonIgnore
     User user;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "workout-exercises")
     @OneToMany(mappedBy = "workout", cascade = CascadeType.ALL)
     private List<WorkoutExercise> exercises;
 
+    // Set instead of the exercise rows when workouts use DOCUMENT storage
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    @JsonIgnore
+    private List<ExerciseDocument> document;
+
+    public List<WorkoutExercise> getExercises() {
+        if (document == null) {
+            return exercises;
+        }
+        return document.stream().map(ex -> ex.toEntity(this)).toList();
+    }
+
 }
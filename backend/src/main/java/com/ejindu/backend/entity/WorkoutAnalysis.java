@@ -4,7 +4,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -30,7 +32,8 @@ public class WorkoutAnalysis {
     private UUID id;
 
     @OneToOne
-    @JoinColumn(name = "workout_id", unique = true)
+    // No FK: a partitioned workout table has no unique constraint on id alone
+    @JoinColumn(name = "workout_id", unique = true, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Workout workout;
 
     @Column(columnDefinition = "TEXT")
@@ -3,12 +3,20 @@ package com.ejindu.backend.entity;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -22,7 +30,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "workoutExercise")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "exercise")
+@Table(name = "workoutExercise", indexes = @Index(name = "workout_exercise_workout_idx", columnList = "workout_id"))
 public class WorkoutExercise {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -30,10 +40,13 @@ public class WorkoutExercise {
 
     private String name;
 
+    // No FK: a partitioned workout table has no unique constraint on id alone
     @ManyToOne
     @JsonIgnore
+    @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Workout workout;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "exercise-sets")
     @OneToMany(mappedBy = "workoutExercise", cascade = CascadeType.ALL)
     private List<ExerciseSet> sets;
 
@@ -0,0 +1,7 @@
+package com.ejindu.backend.enums;
+
+public enum AnalysisMode {
+    LLM,
+    RULES,
+    HYBRID
+}
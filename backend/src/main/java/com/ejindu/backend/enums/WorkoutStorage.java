@@ -0,0 +1,6 @@
+package com.ejindu.backend.enums;
+
+public enum WorkoutStorage {
+    RELATIONAL,
+    DOCUMENT
+}
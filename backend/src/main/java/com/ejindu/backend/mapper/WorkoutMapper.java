@@ -1,18 +1,40 @@
 package com.ejindu.backend.mapper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
+import com.ejindu.backend.config.PhaseEvent;
 import com.ejindu.backend.dto.ExerciseSetDto;
+import com.ejindu.backend.dto.FieldSelection;
 import com.ejindu.backend.dto.WorkoutDto;
 import com.ejindu.backend.dto.WorkoutExerciseDto;
+import com.ejindu.backend.entity.ExerciseDocument;
 import com.ejindu.backend.entity.ExerciseSet;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.entity.Workout;
 import com.ejindu.backend.entity.WorkoutExercise;
+import com.ejindu.backend.enums.WorkoutStorage;
 
 public class WorkoutMapper {
 
         public static Workout toEntity(WorkoutDto dto, User owner) {
+                return toEntity(dto, owner, WorkoutStorage.RELATIONAL);
+        }
+
+        public static Workout toEntity(WorkoutDto dto, User owner, WorkoutStorage storage) {
+                if (storage == WorkoutStorage.DOCUMENT) {
+                        return Workout.builder()
+                                        .id(dto.getId())
+                                        .name(dto.getName())
+                                        .date(dto.getDate())
+                                        .user(owner)
+                                        .notes(dto.getNotes())
+                                        .exercises(new ArrayList<>())
+                                        .document(toDocument(dto.getExercises()))
+                                        .build();
+                }
+
                 Workout workout = Workout.builder()
                                 .id(dto.getId())
                                 .name(dto.getName())
@@ -46,18 +68,72 @@ public class WorkoutMapper {
                 return workout;
         }
 
+        // Ids are kept stable across edits so clients can keep referring to them
+        public static List<ExerciseDocument> toDocument(List<WorkoutExerciseDto> exercises) {
+                return exercises.stream()
+                                .map(ex -> new ExerciseDocument(
+                                                ex.getId() != null ? ex.getId() : UUID.randomUUID(),
+                                                ex.getName(),
+                                                ex.getSets().stream()
+                                                                .map(set -> new ExerciseDocument.SetDocument(
+                                                                                set.getId() != null ? set.getId() : UUID.randomUUID(),
+                                                                                set.getReps(),
+                                                                                set.getWeightLbs()))
+                                                                .toList()))
+                                .toList();
+        }
+
+        // Traversing exercises and sets is where lazy loading happens, hence the event
         public static WorkoutDto toDto(Workout workout) {
+                return toDto(workout, FieldSelection.FULL_DEPTH);
+        }
+
+        // Levels below depth are left null and never touched, so their collections stay unloaded
+        public static WorkoutDto toDto(Workout workout, int depth) {
+                PhaseEvent event = PhaseEvent.begin(PhaseEvent.MAPPING);
+                WorkoutDto dto = mapDto(workout, depth);
+                event.end("ok", "workout", dto.getExercises() == null ? 0 : dto.getExercises().size());
+                return dto;
+        }
+
+        private static WorkoutDto mapDto(Workout workout, int depth) {
+                return WorkoutDto.builder()
+                                .id(workout.getId())
+                                .name(workout.getName())
+                                .date(workout.getDate())
+                                .notes(workout.getNotes())
+                                .exercises(depth < 1 ? null :
+                                        workout.getExercises().stream()
+                                                .map(ex -> WorkoutExerciseDto.builder()
+                                                        .id(ex.getId())
+                                                        .name(ex.getName())
+                                                        .sets(depth < 2 ? null :
+                                                                ex.getSets().stream()
+                                                                        .map(set -> ExerciseSetDto
+                                                                                .builder()
+                                                                                .id(set.getId())
+                                                                                .reps(set.getReps())
+                                                                                .weightLbs(set.getWeightLbs())
+                                                                                .build())
+                                                                        .toList())
+                                                        .build())
+                                                .toList())
+                        .build();
+        }
+
+        // Copies a fully mapped workout (e.g. a cached one) down to depth, leaving the original untouched
+        public static WorkoutDto toDto(WorkoutDto workout, int depth) {
                 return WorkoutDto.builder()
                                 .id(workout.getId())
                                 .name(workout.getName())
                                 .date(workout.getDate())
                                 .notes(workout.getNotes())
-                                .exercises(
+                                .exercises(depth < 1 ? null :
                                         workout.getExercises().stream()
                                                 .map(ex -> WorkoutExerciseDto.builder()
                                                         .id(ex.getId())
                                                         .name(ex.getName())
-                                                        .sets(
+                                                        .sets(depth < 2 ? null :
                                                                 ex.getSets().stream()
                                                                         .map(set -> ExerciseSetDto
                                                                                 .builder()
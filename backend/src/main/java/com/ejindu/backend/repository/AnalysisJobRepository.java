@@ -0,0 +1,48 @@
+package com.ejindu.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.ejindu.backend.entity.AnalysisJob;
+
+import jakarta.persistence.QueryHint;
+
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, UUID> {
+
+    // Declaring the table keeps Hibernate from evicting every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "analysis_job"))
+    @Query(value = """
+  INSERT INTO analysis_job (id, workout_id, available_at, attempts, created_at)
+  VALUES (gen_random_uuid(), :workoutId, now(), 0, now())
+  ON CONFLICT (workout_id) DO UPDATE
+     SET available_at = now(), attempts = 0
+""", nativeQuery = true)
+    void enqueue(@Param("workoutId") UUID workoutId);
+
+    @Query(value = """
+  SELECT * FROM analysis_job
+  WHERE  available_at <= now()
+  ORDER  BY available_at
+  LIMIT  :limit
+  FOR UPDATE SKIP LOCKED
+""", nativeQuery = true)
+    List<AnalysisJob> lockAvailable(@Param("limit") int limit);
+
+    // Only completes the job if nobody re-enqueued it while it was running
+    @Modifying
+    @Query("DELETE FROM AnalysisJob j WHERE j.id = :id AND j.availableAt = :claimedUntil")
+    int complete(@Param("id") UUID id, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("DELETE FROM AnalysisJob j WHERE j.workoutId IN :workoutIds")
+    int deleteByWorkoutIds(@Param("workoutIds") Collection<UUID> workoutIds);
+}
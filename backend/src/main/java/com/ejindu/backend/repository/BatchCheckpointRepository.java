@@ -0,0 +1,34 @@
+package com.ejindu.backend.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.ejindu.backend.entity.BatchCheckpoint;
+
+import jakarta.persistence.QueryHint;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "batch_checkpoint"))
+    @Query(value = """
+  INSERT INTO batch_checkpoint (job_name, last_user_id, updated_at)
+  VALUES (:job, 0, now())
+  ON CONFLICT (job_name) DO NOTHING
+""", nativeQuery = true)
+    void createIfAbsent(@Param("job") String job);
+
+    @Modifying
+    @Query("""
+  UPDATE BatchCheckpoint c
+  SET    c.lockedUntil = :until
+  WHERE  c.jobName = :job
+    AND  (c.lockedUntil IS NULL OR c.lockedUntil < :now)
+""")
+    int tryLock(@Param("job") String job, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
@@ -2,8 +2,20 @@ package com.ejindu.backend.repository;
 
 import com.ejindu.backend.entity.ExerciseSet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface ExerciseSetRepository extends JpaRepository<ExerciseSet, UUID> {
+
+    @Modifying
+    @Query("""
+  DELETE FROM ExerciseSet s
+  WHERE  s.workoutExercise IN (
+         SELECT e FROM WorkoutExercise e WHERE e.workout.id IN :workoutIds)
+""")
+    int deleteByWorkoutIds(@Param("workoutIds") Collection<UUID> workoutIds);
 }
@@ -0,0 +1,26 @@
+package com.ejindu.backend.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ejindu.backend.entity.GeminiUsage;
+
+public interface GeminiUsageRepository extends JpaRepository<GeminiUsage, UUID> {
+
+    @Query("""
+  SELECT COALESCE(SUM(u.promptTokens + u.responseTokens), 0)
+  FROM   GeminiUsage u
+  WHERE  u.userId = :userId
+    AND  u.usageDate >= :since
+""")
+    long totalTokensSince(@Param("userId") Integer userId, @Param("since") LocalDate since);
+
+    @Modifying
+    @Query("DELETE FROM GeminiUsage u WHERE u.userId = :userId")
+    int deleteByUserId(@Param("userId") Integer userId);
+}
@@ -5,6 +5,9 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.ejindu.backend.entity.PeriodAnalysis;
 import com.ejindu.backend.entity.User;
@@ -17,4 +20,12 @@ public interface PeriodAnalysisRepository extends JpaRepository<PeriodAnalysis,
 
     boolean existsByUserAndFromDateAndToDateAndGoal(
             User user, LocalDate fromDate, LocalDate toDate, Goal goal);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM PeriodAnalysis p WHERE p.user.id = :userId AND :date BETWEEN p.fromDate AND p.toDate")
+    int deleteCovering(@Param("userId") Integer userId, @Param("date") LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM PeriodAnalysis p WHERE p.user.id = :userId")
+    int deleteByUserId(@Param("userId") Integer userId);
+}
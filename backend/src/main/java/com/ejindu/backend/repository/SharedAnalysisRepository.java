@@ -0,0 +1,37 @@
+package com.ejindu.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ejindu.backend.entity.SharedAnalysis;
+
+import jakarta.persistence.QueryHint;
+
+public interface SharedAnalysisRepository extends JpaRepository<SharedAnalysis, String> {
+
+    Optional<SharedAnalysis> findByFingerprintAndCreatedAtAfter(String fingerprint, LocalDateTime after);
+
+    // Replaces an expired row, or one another node just stored, and restarts its TTL
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "shared_analysis"))
+    @Query(value = """
+  INSERT INTO shared_analysis (fingerprint, analysis, created_at)
+  VALUES (:fingerprint, :analysis, :createdAt)
+  ON CONFLICT (fingerprint) DO UPDATE
+     SET analysis = excluded.analysis, created_at = excluded.created_at
+""", nativeQuery = true)
+    void upsert(@Param("fingerprint") String fingerprint, @Param("analysis") String analysis,
+            @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM SharedAnalysis s WHERE s.createdAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
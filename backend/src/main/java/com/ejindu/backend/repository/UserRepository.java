@@ -2,11 +2,23 @@ package com.ejindu.backend.repository;
 
 import com.ejindu.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
+    // Runs on every authenticated request; cached until the _user table changes
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<User> findByEmail(String email);
 
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int purgeById(@Param("id") Integer id);
+
 }
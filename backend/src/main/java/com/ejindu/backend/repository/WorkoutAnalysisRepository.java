@@ -1,9 +1,13 @@
 package com.ejindu.backend.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.ejindu.backend.entity.Workout;
 import com.ejindu.backend.entity.WorkoutAnalysis;
@@ -13,4 +17,8 @@ public interface WorkoutAnalysisRepository extends JpaRepository<WorkoutAnalysis
     Optional<WorkoutAnalysis> findByWorkout(Workout workout);
 
     boolean existsByWorkout(Workout workout);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM WorkoutAnalysis a WHERE a.workout.id IN :workoutIds")
+    int deleteByWorkoutIds(@Param("workoutIds") Collection<UUID> workoutIds);
+}
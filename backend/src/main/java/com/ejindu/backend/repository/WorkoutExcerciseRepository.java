@@ -2,8 +2,16 @@ package com.ejindu.backend.repository;
 
 import com.ejindu.backend.entity.WorkoutExercise;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface WorkoutExcerciseRepository extends JpaRepository<WorkoutExercise, UUID> {
+
+    @Modifying
+    @Query("DELETE FROM WorkoutExercise e WHERE e.workout.id IN :workoutIds")
+    int deleteByWorkoutIds(@Param("workoutIds") Collection<UUID> workoutIds);
 }
@@ -2,11 +2,15 @@ package com.ejindu.backend.repository;
 
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.entity.Workout;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,6 +19,10 @@ public interface WorkoutRepository extends JpaRepository<Workout, UUID> {
 
     List<Workout> findByUserAndDateBetween(User user, LocalDate from, LocalDate to);
 
+    // Exercises joined in, sets left unloaded; fetching both would be two bags at once
+    @EntityGraph(attributePaths = "exercises")
+    List<Workout> findWithExercisesByUserAndDateBetween(User user, LocalDate from, LocalDate to);
+
    Optional<Workout> findByIdAndUser(UUID id, User owner);
 
     @Query("""
@@ -29,6 +37,48 @@ public interface WorkoutRepository extends JpaRepository<Workout, UUID> {
             @Param("start") LocalDate start,
             @Param("end")   LocalDate end);
 
+    long countByUserId(Integer userId);
+
+    @Query("""
+  SELECT DISTINCT w.user.id
+  FROM   Workout w
+  WHERE  w.date BETWEEN :start AND :end
+    AND  w.user.id > :after
+  ORDER  BY w.user.id
+""")
+    List<Integer> findActiveUserIds(
+            @Param("start") LocalDate start,
+            @Param("end")   LocalDate end,
+            @Param("after") Integer after,
+            Pageable page);
+
+    // One branch per storage mode, as an OR across both kept the planner off the
+    // workout_document_gin index; mid-migration a user can have workouts in either
+    @Query(value = """
+  SELECT w.*
+  FROM   workout w
+  WHERE  w.user_id = :userId
+    AND  w.document @> jsonb_build_array(jsonb_build_object('name', :exercise))
+  UNION ALL
+  SELECT w.*
+  FROM   workout w
+  WHERE  w.user_id = :userId
+    AND  w.document IS NULL
+    AND  EXISTS (SELECT 1 FROM workout_exercise e WHERE e.workout_id = w.id AND e.name = :exercise)
+  ORDER  BY date DESC
+""", nativeQuery = true)
+    List<Workout> findByUserIdAndExerciseName(
+            @Param("userId")   Integer userId,
+            @Param("exercise") String exercise,
+            Pageable page);
+
+    @Query("SELECT w.id FROM Workout w WHERE w.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") Integer userId, Pageable page);
+
+    @Modifying
+    @Query("DELETE FROM Workout w WHERE w.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+
 
     interface DailyCount {
         LocalDate getDate();
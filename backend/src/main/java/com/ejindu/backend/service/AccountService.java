@@ -0,0 +1,81 @@
+package com.ejindu.backend.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.repository.GeminiUsageRepository;
+import com.ejindu.backend.repository.PeriodAnalysisRepository;
+import com.ejindu.backend.repository.RefreshTokenRepository;
+import com.ejindu.backend.repository.UserRepository;
+import com.ejindu.backend.repository.WorkoutRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AccountService {
+
+    private final UserRepository userRepository;
+    private final WorkoutRepository workoutRepository;
+    private final PeriodAnalysisRepository periodAnalysisRepository;
+    private final GeminiUsageRepository usageRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final WorkoutService workoutService;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentHistoryCache recentHistory;
+
+    @Value("${account.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${account.purge.async-threshold:2000}")
+    private long asyncThreshold;
+
+    public boolean requiresBackgroundPurge(User user) {
+        return workoutRepository.countByUserId(user.getId()) > asyncThreshold;
+    }
+
+    @Async
+    public void purgeInBackground(Integer userId) {
+        try {
+            purge(userId);
+        } catch (RuntimeException e) {
+            log.error("Background purge of user {} failed", userId, e);
+        }
+    }
+
+    /**
+     * Deletes a user and everything they own with set-based statements.
+     * Workouts are removed in chunks, each in its own transaction, so a
+     * long history never has to be loaded or locked all at once.
+     */
+    public void purge(Integer userId) {
+        List<UUID> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<UUID> ids = workoutRepository.findIdsByUserId(userId, PageRequest.of(0, chunkSize));
+                if (!ids.isEmpty()) {
+                    workoutService.deleteWorkoutsByIds(ids);
+                }
+                return ids;
+            });
+        } while (chunk != null && chunk.size() == chunkSize);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            periodAnalysisRepository.deleteByUserId(userId);
+            usageRepository.deleteByUserId(userId);
+            refreshTokenRepository.deleteByUserId(userId);
+            userRepository.purgeById(userId);
+            recentHistory.evict(userId);
+        });
+        log.info("Purged user {}", userId);
+    }
+}
@@ -0,0 +1,123 @@
+package com.ejindu.backend.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ejindu.backend.entity.AnalysisJob;
+import com.ejindu.backend.repository.AnalysisJobRepository;
+import com.ejindu.backend.repository.WorkoutRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Drains the analysis_job outbox. Jobs are claimed with FOR UPDATE SKIP LOCKED
+ * so any number of nodes can poll the same table, and at most
+ * analysis.worker.concurrency Gemini calls run on this node at once. Jobs run
+ * on Boot's application task executor, which uses virtual threads when
+ * spring.threads.virtual.enabled is set.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "analysis.worker.enabled", matchIfMissing = true)
+public class AnalysisJobWorker {
+
+    private final AnalysisJobRepository jobRepository;
+    private final WorkoutRepository workoutRepository;
+    private final AnalysisService analysisService;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor executor;
+
+    @Value("${analysis.worker.concurrency:4}")
+    private int concurrency;
+
+    @Value("${analysis.worker.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${analysis.worker.max-attempts:5}")
+    private int maxAttempts;
+
+    private Semaphore permits;
+
+    // @EnableScheduling adds a taskScheduler that is an AsyncTaskExecutor too, hence the qualifier
+    public AnalysisJobWorker(AnalysisJobRepository jobRepository, WorkoutRepository workoutRepository,
+            AnalysisService analysisService, TransactionTemplate transactionTemplate,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor) {
+        this.jobRepository = jobRepository;
+        this.workoutRepository = workoutRepository;
+        this.analysisService = analysisService;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    void start() {
+        permits = new Semaphore(concurrency);
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.worker.poll-interval-ms:2000}")
+    public void poll() {
+        int free = permits.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        LocalDateTime claimedUntil = LocalDateTime.now()
+                .plusSeconds(leaseSeconds)
+                .truncatedTo(ChronoUnit.MILLIS);
+
+        List<AnalysisJob> claimed = transactionTemplate.execute(status -> {
+            List<AnalysisJob> jobs = jobRepository.lockAvailable(free);
+            jobs.forEach(job -> {
+                job.setAvailableAt(claimedUntil);
+                job.setAttempts(job.getAttempts() + 1);
+            });
+            return jobs;
+        });
+
+        for (AnalysisJob job : claimed) {
+            permits.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+    }
+
+    private void run(AnalysisJob job) {
+        try {
+            // The prompt is built eagerly, so the workout graph is only needed inside the transaction
+            Mono<String> analysis = transactionTemplate.execute(status -> workoutRepository
+                    .findById(job.getWorkoutId())
+                    .map(w -> analysisService.precomputeSingle(w, null))
+                    .orElse(Mono.empty()));
+            if (analysis != null) {
+                analysis.block();
+            }
+            transactionTemplate.executeWithoutResult(
+                    status -> jobRepository.complete(job.getId(), job.getAvailableAt()));
+        } catch (RuntimeException e) {
+            log.warn("Analysis job for workout {} failed (attempt {}): {}",
+                    job.getWorkoutId(), job.getAttempts(), e.getMessage());
+            if (job.getAttempts() >= maxAttempts) {
+                transactionTemplate.executeWithoutResult(
+                        status -> jobRepository.complete(job.getId(), job.getAvailableAt()));
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ejindu.backend.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.enums.Goal;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Produces feedback text for a workout or a period. Implementations do no
+ * caching; AnalysisService decides which provider runs and stores results.
+ * Period methods are only called with a non-empty list.
+ */
+public interface AnalysisProvider {
+
+    String name();
+
+    Mono<String> analyseWorkout(Workout w, Goal goal);
+
+    Mono<String> analysePeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal);
+
+    default Flux<String> streamWorkout(Workout w, Goal goal) {
+        return analyseWorkout(w, goal).flux();
+    }
+
+    default Flux<String> streamPeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
+        return analysePeriod(list, from, to, goal).flux();
+    }
+}
@@ -0,0 +1,244 @@
+package com.ejindu.backend.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.ejindu.backend.entity.PeriodAnalysis;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.entity.WorkoutAnalysis;
+import com.ejindu.backend.enums.AnalysisMode;
+import com.ejindu.backend.enums.Goal;
+import com.ejindu.backend.repository.PeriodAnalysisRepository;
+import com.ejindu.backend.repository.WorkoutAnalysisRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Entry point for workout and period feedback. Serves cached analyses, routes
+ * new ones to the configured provider(s) and stores the result. When the LLM
+ * fails, the rule engine answers instead; those fallbacks are not cached so
+ * the next request gets another chance at the full analysis.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AnalysisService {
+
+    private static final String NO_WORKOUTS = "No workouts found for the specified period.";
+
+    private final GeminiService gemini;
+    private final RuleBasedAnalysisProvider rules;
+    private final SharedAnalysisCache sharedCache;
+    private final GeminiUsageService usage;
+    private final MeterRegistry registry;
+    private final WorkoutAnalysisRepository analysisRepository;
+    private final PeriodAnalysisRepository periodAnalysisRepository;
+
+    @Value("${analysis.provider.mode:LLM}")
+    private AnalysisMode mode;
+
+    @Value("${analysis.provider.fallback-to-rules:true}")
+    private boolean fallbackToRules;
+
+    public Mono<String> analyseSingle(Workout w, Goal goal) {
+        return analyseSingle(w, goal, fallbackToRules);
+    }
+
+    /**
+     * For the analysis_job worker: never answers with the rule engine when the
+     * LLM fails, so the error reaches the worker and the job is retried.
+     */
+    public Mono<String> precomputeSingle(Workout w, Goal goal) {
+        return analyseSingle(w, goal, false);
+    }
+
+    private Mono<String> analyseSingle(Workout w, Goal goal, boolean allowFallback) {
+        // Check if analysis already exists
+        Optional<WorkoutAnalysis> existingAnalysis = cached("workout", analysisRepository.findByWorkout(w));
+        if (existingAnalysis.isPresent()) {
+            return Mono.just(existingAnalysis.get().getAnalysis());
+        }
+
+        return route(() -> sharedCache.lookupOrCompute(w, goal,
+                                withinQuota(w.getUser(), () -> gemini.analyseWorkout(w, goal))),
+                        () -> rules.analyseWorkout(w, goal), allowFallback)
+                .doOnNext(result -> {
+                    if (result.cacheable()) {
+                        saveSingle(w, result.text());
+                    }
+                })
+                .map(Result::text);
+    }
+
+    public Flux<String> streamSingle(Workout w, Goal goal) {
+        Optional<WorkoutAnalysis> existingAnalysis = cached("workout", analysisRepository.findByWorkout(w));
+        if (existingAnalysis.isPresent()) {
+            return Flux.just(existingAnalysis.get().getAnalysis());
+        }
+
+        return routeStream(() -> sharedCache.lookupOrStream(w, goal,
+                        withinQuotaStream(w.getUser(), () -> gemini.streamWorkout(w, goal))),
+                () -> rules.analyseWorkout(w, goal),
+                analysis -> saveSingle(w, analysis));
+    }
+
+    public Mono<String> analysePeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
+        if (list.isEmpty()) {
+            return Mono.just(NO_WORKOUTS);
+        }
+
+        User user = list.get(0).getUser();
+
+        // Check if period analysis already exists
+        Optional<PeriodAnalysis> existingAnalysis = cached("period", periodAnalysisRepository
+                .findByUserAndFromDateAndToDateAndGoal(user, from, to, goal));
+        if (existingAnalysis.isPresent()) {
+            return Mono.just(existingAnalysis.get().getAnalysis());
+        }
+
+        return route(() -> withinQuota(user, () -> gemini.analysePeriod(list, from, to, goal)),
+                        () -> rules.analysePeriod(list, from, to, goal), fallbackToRules)
+                .doOnNext(result -> {
+                    if (result.cacheable()) {
+                        savePeriod(user, from, to, goal, result.text());
+                    }
+                })
+                .map(Result::text);
+    }
+
+    public Flux<String> streamPeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
+        if (list.isEmpty()) {
+            return Flux.just(NO_WORKOUTS);
+        }
+
+        User user = list.get(0).getUser();
+
+        Optional<PeriodAnalysis> existingAnalysis = cached("period", periodAnalysisRepository
+                .findByUserAndFromDateAndToDateAndGoal(user, from, to, goal));
+        if (existingAnalysis.isPresent()) {
+            return Flux.just(existingAnalysis.get().getAnalysis());
+        }
+
+        return routeStream(() -> withinQuotaStream(user, () -> gemini.streamPeriod(list, from, to, goal)),
+                () -> rules.analysePeriod(list, from, to, goal),
+                analysis -> savePeriod(user, from, to, goal, analysis));
+    }
+
+    private <T> Optional<T> cached(String kind, Optional<T> lookup) {
+        registry.counter("analysis.cache", "kind", kind, "result", lookup.isPresent() ? "hit" : "miss").increment();
+        return lookup;
+    }
+
+    // Provider calls build their prompt/result eagerly so the caller's session is still open
+    private Mono<Result> route(Supplier<Mono<String>> llm, Supplier<Mono<String>> local, boolean allowFallback) {
+        return switch (mode) {
+            case RULES -> local.get().map(text -> new Result(text, true));
+            case LLM -> llm.get()
+                    .map(text -> new Result(text, true))
+                    .onErrorResume(e -> fallback(e, allowFallback,
+                            () -> local.get().map(text -> new Result(text, false))));
+            case HYBRID -> {
+                Mono<String> enrichment = llm.get();
+                yield local.get().flatMap(base -> enrichment
+                        .map(text -> new Result(base + "\n\n" + text, true))
+                        .onErrorResume(e -> fallback(e, allowFallback, () -> Mono.just(new Result(base, false)))));
+            }
+        };
+    }
+
+    private Flux<String> routeStream(Supplier<Flux<String>> llm, Supplier<Mono<String>> local, Consumer<String> save) {
+        return switch (mode) {
+            case RULES -> persisted(local.get().flux(), save);
+            case LLM -> {
+                Flux<String> stream = llm.get();
+                yield Flux.defer(() -> {
+                    AtomicBoolean started = new AtomicBoolean();
+                    return persisted(stream.doOnNext(chunk -> started.set(true)), save)
+                            .onErrorResume(e -> started.get()
+                                    ? Flux.error(e)
+                                    : fallback(e, fallbackToRules, () -> local.get()).flux());
+                });
+            }
+            case HYBRID -> {
+                Flux<String> stream = llm.get();
+                yield local.get().flatMapMany(base -> Flux.concat(
+                        Flux.just(base + "\n\n"),
+                        persisted(stream, text -> save.accept(base + "\n\n" + text))
+                                .onErrorResume(e -> fallback(e, fallbackToRules, Mono::<String>empty).flux())));
+            }
+        };
+    }
+
+    // Users over their monthly token quota only get shared-cache hits or the rule engine
+    private Mono<String> withinQuota(User user, Supplier<Mono<String>> call) {
+        return usage.withinQuota(user.getId()) ? call.get() : Mono.error(quotaReached());
+    }
+
+    private Flux<String> withinQuotaStream(User user, Supplier<Flux<String>> call) {
+        return usage.withinQuota(user.getId()) ? call.get() : Flux.error(quotaReached());
+    }
+
+    private static ResponseStatusException quotaReached() {
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Monthly AI analysis quota reached");
+    }
+
+    // An empty stream is not an analysis; storing it would serve a blank answer from then on
+    private Flux<String> persisted(Flux<String> chunks, Consumer<String> save) {
+        return Flux.defer(() -> {
+            StringBuilder assembled = new StringBuilder();
+            return chunks
+                    .doOnNext(assembled::append)
+                    .doOnComplete(() -> {
+                        if (!assembled.toString().isBlank()) {
+                            save.accept(assembled.toString());
+                        }
+                    });
+        });
+    }
+
+    private <T> Mono<T> fallback(Throwable e, boolean allowed, Supplier<Mono<T>> local) {
+        if (!allowed) {
+            return Mono.error(e);
+        }
+        log.warn("LLM analysis failed, answering with rules: {}", e.toString());
+        return Mono.defer(local);
+    }
+
+    private void saveSingle(Workout w, String analysis) {
+        // Cache the analysis
+        WorkoutAnalysis workoutAnalysis = WorkoutAnalysis.builder()
+                .workout(w)
+                .analysis(analysis)
+                .build();
+        analysisRepository.save(workoutAnalysis);
+    }
+
+    private void savePeriod(User user, LocalDate from, LocalDate to, Goal goal, String analysis) {
+        // Cache the period analysis
+        PeriodAnalysis periodAnalysis = PeriodAnalysis.builder()
+                .user(user)
+                .fromDate(from)
+                .toDate(to)
+                .goal(goal)
+                .analysis(analysis)
+                .build();
+        periodAnalysisRepository.save(periodAnalysis);
+    }
+
+    private record Result(String text, boolean cacheable) {
+    }
+}
@@ -1,15 +1,19 @@
 package com.ejindu.backend.service;
 
+import com.ejindu.backend.dto.WorkoutDto;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.repository.WorkoutRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -18,7 +22,9 @@ import java.util.stream.Collectors;
 public class CalendarService {
 
     private final WorkoutRepository workoutRepository;
+    private final RecentHistoryCache recentHistory;
 
+    @Transactional(readOnly = true)
     public Map<LocalDate, Long> heatmap(User user, YearMonth ym) {
         LocalDate first = ym.atDay(1);
         LocalDate last  = ym.atEndOfMonth().isAfter(LocalDate.now())
@@ -28,8 +34,14 @@ public class CalendarService {
         Set<LocalDate> trainedDays = new HashSet<>();
         Map<LocalDate, Long> map   = new LinkedHashMap<>();
 
-        workoutRepository.workoutCounts(user, first, last)
-                .forEach(row -> map.put(row.getDate(), row.getCnt()));
+        // The current month usually falls inside the recent-history window
+        Optional<List<WorkoutDto>> recent = recentHistory.between(user, first, last);
+        if (recent.isPresent()) {
+            recent.get().forEach(w -> map.merge(w.getDate(), 1L, Long::sum));
+        } else {
+            workoutRepository.workoutCounts(user, first, last)
+                    .forEach(row -> map.put(row.getDate(), row.getCnt()));
+        }
 
         for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
             map.putIfAbsent(d, 0L);
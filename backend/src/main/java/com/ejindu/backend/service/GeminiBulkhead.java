@@ -0,0 +1,147 @@
+package com.ejindu.backend.service;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Caps concurrent Gemini calls. Callers beyond the limit wait up to maxWait
+ * in a queue of at most maxQueue; everyone else is turned away with a 503
+ * instead of piling up behind a slow upstream.
+ */
+class GeminiBulkhead {
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejected;
+
+    GeminiBulkhead(int maxConcurrent, int maxQueue, Duration maxWait, MeterRegistry registry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.rejected = registry.counter("gemini.bulkhead.rejected");
+        Gauge.builder("gemini.bulkhead.active", this, b -> b.maxConcurrent - b.permits.availablePermits())
+                .register(registry);
+        Gauge.builder("gemini.bulkhead.queued", waiting, AtomicInteger::get)
+                .register(registry);
+    }
+
+    // Released before the result is passed on, so a caller that goes straight on to its next
+    // call finds the permit free; doFinally covers cancellation
+    <T> Mono<T> wrap(Mono<T> call) {
+        return Mono.defer(() -> {
+            Lease lease = new Lease();
+            return acquire(lease).then(call).doOnTerminate(lease::end).doFinally(signal -> lease.end());
+        });
+    }
+
+    <T> Flux<T> wrap(Flux<T> call) {
+        return Flux.defer(() -> {
+            Lease lease = new Lease();
+            return acquire(lease).thenMany(call).doOnTerminate(lease::end).doFinally(signal -> lease.end());
+        });
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // The permit goes straight to the lease rather than through the sink: a sink cancelled
+    // while its caller was queued drops whatever it is given, which would leak the permit.
+    private Mono<Void> acquire(Lease lease) {
+        return Mono.defer(() -> {
+            if (permits.tryAcquire()) {
+                lease.hold();
+                return Mono.empty();
+            }
+            return Mono.<Void>create(sink -> {
+                AtomicBoolean cancelled = new AtomicBoolean();
+                Disposable waiter = Schedulers.boundedElastic().schedule(() -> {
+                    try {
+                        await(cancelled);
+                        lease.hold();
+                        sink.success();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (ResponseStatusException e) {
+                        sink.error(e);
+                    }
+                });
+                sink.onCancel(() -> {
+                    cancelled.set(true);
+                    waiter.dispose();
+                });
+            });
+        });
+    }
+
+    private void await(AtomicBoolean cancelled) throws InterruptedException {
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            throw reject();
+        }
+        try {
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            while (true) {
+                try {
+                    if (permits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        return;
+                    }
+                    throw reject();
+                } catch (InterruptedException e) {
+                    // Disposing a pooled task can interrupt whatever runs on its thread next
+                    if (cancelled.get()) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private ResponseStatusException reject() {
+        rejected.increment();
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI analysis is busy, try again shortly");
+    }
+
+    // One call's permit. It can be granted on the waiting thread while the call is cancelled
+    // on another, so whichever of hold and end comes second gives it back.
+    private final class Lease {
+
+        private static final int IDLE = 0;
+        private static final int HELD = 1;
+        private static final int ENDED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        void hold() {
+            if (!state.compareAndSet(IDLE, HELD)) {
+                permits.release();
+            }
+        }
+
+        void end() {
+            if (state.getAndSet(ENDED) == HELD) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ejindu.backend.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Wraps every Gemini call in, from the outside in: a bulkhead, jittered
+ * retries on 429/5xx/IO errors, a circuit breaker and a per-attempt timeout.
+ * Streams are not retried since chunks may already have reached the client.
+ */
+@Component
+public class GeminiGuard {
+
+    private final MeterRegistry registry;
+    private final CircuitBreaker circuitBreaker;
+    private final GeminiBulkhead bulkhead;
+    private final Counter retries;
+    private final Duration callTimeout;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public GeminiGuard(MeterRegistry registry,
+            @Value("${gemini.call-timeout-ms:30000}") long callTimeoutMs,
+            @Value("${gemini.retry.max-attempts:3}") int maxAttempts,
+            @Value("${gemini.retry.backoff-ms:500}") long backoffMs,
+            @Value("${gemini.circuit.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${gemini.circuit.window-size:20}") int windowSize,
+            @Value("${gemini.circuit.open-ms:30000}") long openMs,
+            @Value("${gemini.bulkhead.max-concurrent:20}") int maxConcurrent,
+            @Value("${gemini.bulkhead.max-queue:50}") int maxQueue,
+            @Value("${gemini.bulkhead.max-wait-ms:2000}") long maxWaitMs) {
+        this.registry = registry;
+        this.callTimeout = Duration.ofMillis(callTimeoutMs);
+        this.maxAttempts = maxAttempts;
+        this.backoff = Duration.ofMillis(backoffMs);
+
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(Math.min(windowSize, 5))
+                .waitDurationInOpenState(Duration.ofMillis(openMs))
+                .permittedNumberOfCallsInHalfOpenState(2)
+                .recordException(GeminiGuard::isTransient)
+                .build());
+        this.circuitBreaker = breakers.circuitBreaker("gemini");
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(registry);
+
+        this.bulkhead = new GeminiBulkhead(maxConcurrent, maxQueue, Duration.ofMillis(maxWaitMs), registry);
+        this.retries = registry.counter("gemini.retries");
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        Mono<T> attempt = call
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+
+        Mono<T> retried = attempt.retryWhen(Retry.backoff(maxAttempts - 1, backoff)
+                .jitter(0.5)
+                .filter(GeminiGuard::isTransient)
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+
+        return timed(bulkhead.wrap(retried).onErrorMap(CallNotPermittedException.class, GeminiGuard::unavailable));
+    }
+
+    public <T> Flux<T> protect(Flux<T> stream) {
+        Flux<T> guarded = stream
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+
+        return timed(bulkhead.wrap(guarded).onErrorMap(CallNotPermittedException.class, GeminiGuard::unavailable));
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.getState();
+    }
+
+    private <T> Mono<T> timed(Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call
+                    .doOnSuccess(v -> sample.stop(timer("success")))
+                    .doOnError(e -> sample.stop(timer(outcome(e))));
+        });
+    }
+
+    // A stream is timed until it completes, fails or the client goes away
+    private <T> Flux<T> timed(Flux<T> stream) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return stream
+                    .doOnComplete(() -> sample.stop(timer("success")))
+                    .doOnError(e -> sample.stop(timer(outcome(e))))
+                    .doOnCancel(() -> sample.stop(timer("cancelled")));
+        });
+    }
+
+    private Timer timer(String outcome) {
+        return Timer.builder("gemini.calls")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof ResponseStatusException rse && rse.getStatusCode().value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            return "rejected";
+        }
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
+
+    static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException wre) {
+            return wre.getStatusCode().value() == 429 || wre.getStatusCode().is5xxServerError();
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private static ResponseStatusException unavailable(Throwable e) {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI analysis is temporarily unavailable", e);
+    }
+}
@@ -1,85 +1,102 @@
 package com.ejindu.backend.service;
 
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import com.ejindu.backend.entity.PeriodAnalysis;
+import com.ejindu.backend.config.PhaseEvent;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.entity.Workout;
-import com.ejindu.backend.entity.WorkoutAnalysis;
 import com.ejindu.backend.enums.Goal;
-import com.ejindu.backend.repository.PeriodAnalysisRepository;
-import com.ejindu.backend.repository.WorkoutAnalysisRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
+@Slf4j
 @RequiredArgsConstructor
-public class GeminiService {
+public class GeminiService implements AnalysisProvider {
 
     private final WebClient geminiClient;
     private final ObjectMapper mapper;
-    private final WorkoutAnalysisRepository analysisRepository;
-    private final PeriodAnalysisRepository periodAnalysisRepository;
-
-    public Mono<String> analyseSingle(Workout w, Goal goal) {
-        // Check if analysis already exists
-        Optional<WorkoutAnalysis> existingAnalysis = analysisRepository.findByWorkout(w);
-        if (existingAnalysis.isPresent()) {
-            return Mono.just(existingAnalysis.get().getAnalysis());
-        }
+    private final GeminiGuard guard;
+    private final GeminiUsageService usage;
+
+    @Override
+    public String name() {
+        return "gemini";
+    }
+
+    @Override
+    public Mono<String> analyseWorkout(Workout w, Goal goal) {
+        return callGemini(singlePrompt(w, goal), w.getUser().getId());
+    }
+
+    @Override
+    public Flux<String> streamWorkout(Workout w, Goal goal) {
+        return streamGemini(singlePrompt(w, goal), w.getUser().getId());
+    }
+
+    @Override
+    public Mono<String> analysePeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
+        User user = list.get(0).getUser();
+        return callGemini(periodPrompt(user, list, from, to, goal), user.getId());
+    }
+
+    @Override
+    public Flux<String> streamPeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
+        User user = list.get(0).getUser();
+        return streamGemini(periodPrompt(user, list, from, to, goal), user.getId());
+    }
 
+    // The name is left as a placeholder for SharedAnalysisCache to fill in, so the answer can be shared
+    String singlePrompt(Workout w, Goal goal) {
         String goalContext = getGoalContext(goal);
-        String userName = w.getUser().getFirstName();
 
-        String prompt = """
+        return """
                 Here is a workout for %s. Give constructive feedback and one suggestion.
                 Talk to them directly using "you" and be conversational and encouraging.
+                If you address them by name, write %s exactly; it is replaced with their name.
 
                 %s
 
                 Workout JSON:
                 %s
-                """.formatted(userName, goalContext, toJson(w));
-
-        return callGemini(prompt)
-                .doOnNext(analysis -> {
-                    // Cache the analysis
-                    WorkoutAnalysis workoutAnalysis = WorkoutAnalysis.builder()
-                            .workout(w)
-                            .analysis(analysis)
-                            .build();
-                    analysisRepository.save(workoutAnalysis);
-                });
+                """.formatted(SharedAnalysisCache.NAME_PLACEHOLDER, SharedAnalysisCache.NAME_PLACEHOLDER,
+                goalContext, toJson(promptView(w)));
     }
 
-    public Mono<String> analysePeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
-        if (list.isEmpty()) {
-            return Mono.just("No workouts found for the specified period.");
-        }
-
-        User user = list.get(0).getUser();
-
-        // Check if period analysis already exists
-        Optional<PeriodAnalysis> existingAnalysis = periodAnalysisRepository
-                .findByUserAndFromDateAndToDateAndGoal(user, from, to, goal);
-        if (existingAnalysis.isPresent()) {
-            return Mono.just(existingAnalysis.get().getAnalysis());
-        }
+    // Only what the feedback depends on, so identical workouts get identical prompts
+    private Map<String, Object> promptView(Workout w) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("name", w.getName());
+        view.put("notes", w.getNotes());
+        view.put("exercises", w.getExercises().stream()
+                .map(ex -> Map.of(
+                        "name", ex.getName(),
+                        "sets", ex.getSets().stream()
+                                .map(set -> Map.of("reps", set.getReps(), "weightLbs", set.getWeightLbs()))
+                                .toList()))
+                .toList());
+        return view;
+    }
 
+    String periodPrompt(User user, List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
         String goalContext = getGoalContext(goal);
         String userName = user.getFirstName();
 
-        String prompt = """
+        return """
                 %s performed %d workouts between %s and %s.
 
                 %s
@@ -92,22 +109,9 @@ public class GeminiService {
                 %s
                 """
                 .formatted(userName, list.size(), from, to, goalContext, toJson(list));
-
-        return callGemini(prompt)
-                .doOnNext(analysis -> {
-                    // Cache the period analysis
-                    PeriodAnalysis periodAnalysis = PeriodAnalysis.builder()
-                            .user(user)
-                            .fromDate(from)
-                            .toDate(to)
-                            .goal(goal)
-                            .analysis(analysis)
-                            .build();
-                    periodAnalysisRepository.save(periodAnalysis);
-                });
     }
 
-    private Mono<String> callGemini(String prompt) {
+    private Mono<String> callGemini(String prompt, Integer userId) {
 
         Map<String, Object> body = Map.of(
                 "contents", List.of(
@@ -115,18 +119,54 @@ public class GeminiService {
 
         final String path = "/models/gemini-1.5-pro-latest:generateContent?key={key}";
 
-        return geminiClient.post()
+        return Mono.defer(() -> {
+            PhaseEvent event = PhaseEvent.begin(PhaseEvent.GEMINI);
+            return guard.protect(geminiClient.post()
+                    .uri(path)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToMono(JsonNode.class))
+                    .doOnNext(json -> log.debug("Gemini raw json: {}", json))
+                    .doOnNext(json -> usage.record(userId, json.path("usageMetadata")))
+                    .map(n -> n.at("/candidates/0/content/parts/0/text").asText())
+                    .doOnError(t -> log.warn("Gemini call failed: {}", t.toString()))
+                    .doFinally(signal -> event.end(signal.name().toLowerCase(), "generate", prompt.length()));
+        });
+
+    }
+
+    private Flux<String> streamGemini(String prompt, Integer userId) {
+
+        Map<String, Object> body = Map.of(
+                "contents", List.of(
+                        Map.of("parts", List.of(Map.of("text", prompt)))));
+
+        final String path = "/models/gemini-1.5-pro-latest:streamGenerateContent?alt=sse&key={key}";
+
+        Flux<JsonNode> chunks = guard.protect(geminiClient.post()
                 .uri(path)
+                .accept(MediaType.TEXT_EVENT_STREAM)
                 .bodyValue(body)
                 .retrieve()
-                .bodyToMono(JsonNode.class)
-                .doOnNext(json -> System.out.println("✅ Gemini raw json → " + json))
-                .map(n -> n.at("/candidates/0/content/parts/0/text").asText())
-                .doOnError(t -> {
-                    System.err.println("🔥 Controller is blowing up with: " + t);
-                    t.printStackTrace();
-                });
-
+                .bodyToFlux(JsonNode.class));
+
+        // Every chunk carries the running usage totals, so only the last one is recorded
+        return Flux.defer(() -> {
+            AtomicReference<JsonNode> lastUsage = new AtomicReference<>();
+            PhaseEvent event = PhaseEvent.begin(PhaseEvent.GEMINI);
+            return chunks
+                    .doOnNext(n -> {
+                        if (n.has("usageMetadata")) {
+                            lastUsage.set(n.get("usageMetadata"));
+                        }
+                    })
+                    .doFinally(signal -> {
+                        usage.record(userId, lastUsage.get());
+                        event.end(signal.name().toLowerCase(), "stream", prompt.length());
+                    })
+                    .map(n -> n.at("/candidates/0/content/parts/0/text").asText())
+                    .filter(chunk -> !chunk.isEmpty());
+        });
     }
 
     private String getGoalContext(Goal goal) {
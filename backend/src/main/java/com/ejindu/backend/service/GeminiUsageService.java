@@ -0,0 +1,173 @@
+package com.ejindu.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ejindu.backend.repository.GeminiUsageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accounts Gemini token usage per user. Calls only bump in-memory counters;
+ * a scheduled flush upserts the accumulated per-user daily totals in one
+ * JDBC batch. Monthly quotas are checked against the stored total plus
+ * whatever hasn't been flushed yet.
+ */
+@Service
+@Slf4j
+public class GeminiUsageService {
+
+    private static final String UPSERT = """
+            INSERT INTO gemini_usage (id, user_id, usage_date, calls, prompt_tokens, response_tokens)
+            VALUES (gen_random_uuid(), ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, usage_date) DO UPDATE
+               SET calls = gemini_usage.calls + EXCLUDED.calls,
+                   prompt_tokens = gemini_usage.prompt_tokens + EXCLUDED.prompt_tokens,
+                   response_tokens = gemini_usage.response_tokens + EXCLUDED.response_tokens
+            """;
+
+    private final GeminiUsageRepository usageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long monthlyQuota;
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    // Rows of the flush in progress, still counted by withinQuota until they are committed
+    private volatile List<Object[]> flushing = List.of();
+    private final Cache<Integer, Long> storedThisMonth;
+    private final Counter promptTokens;
+    private final Counter responseTokens;
+    private final Counter quotaExceeded;
+
+    public GeminiUsageService(GeminiUsageRepository usageRepository, JdbcTemplate jdbcTemplate, MeterRegistry registry,
+            @Value("${gemini.quota.monthly-tokens:0}") long monthlyQuota) {
+        this.usageRepository = usageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthlyQuota = monthlyQuota;
+        this.storedThisMonth = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+        this.promptTokens = registry.counter("gemini.tokens", "type", "prompt");
+        this.responseTokens = registry.counter("gemini.tokens", "type", "response");
+        this.quotaExceeded = registry.counter("gemini.quota.exceeded");
+        Gauge.builder("gemini.usage.pending", pending, Map::size).register(registry);
+    }
+
+    public void record(Integer userId, JsonNode usageMetadata) {
+        if (userId == null || usageMetadata == null || usageMetadata.isMissingNode()) {
+            return;
+        }
+        long prompt = usageMetadata.path("promptTokenCount").asLong();
+        long response = usageMetadata.path("candidatesTokenCount").asLong();
+
+        promptTokens.increment(prompt);
+        responseTokens.increment(response);
+        Pending p = pending.computeIfAbsent(new Key(userId, today()), k -> new Pending());
+        p.calls.increment();
+        p.prompt.add(prompt);
+        p.response.add(response);
+    }
+
+    public boolean withinQuota(Integer userId) {
+        if (monthlyQuota <= 0 || userId == null) {
+            return true;
+        }
+        LocalDate monthStart = today().withDayOfMonth(1);
+        long stored = storedThisMonth.get(userId, id -> usageRepository.totalTokensSince(id, monthStart));
+        long unflushed = pending.entrySet().stream()
+                .filter(e -> e.getKey().userId().equals(userId) && !e.getKey().date().isBefore(monthStart))
+                .mapToLong(e -> e.getValue().prompt.sum() + e.getValue().response.sum())
+                .sum();
+        unflushed += flushing.stream()
+                .filter(r -> r[0].equals(userId) && !((LocalDate) r[1]).isBefore(monthStart))
+                .mapToLong(r -> (Long) r[3] + (Long) r[4])
+                .sum();
+
+        boolean within = stored + unflushed < monthlyQuota;
+        if (!within) {
+            quotaExceeded.increment();
+        }
+        return within;
+    }
+
+    /**
+     * Drains the counters in place with sumThenReset, so a record() holding
+     * the same Pending keeps adding to it and nothing is lost. Drained rows
+     * stay in the quota check until the upsert has committed and the cached
+     * monthly totals are invalidated.
+     */
+    @Scheduled(fixedDelayString = "${gemini.usage.flush-interval-ms:15000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate yesterday = today().minusDays(1);
+        for (Map.Entry<Key, Pending> e : pending.entrySet()) {
+            Key key = e.getKey();
+            Pending p = e.getValue();
+            long calls = p.calls.sumThenReset();
+            long prompt = p.prompt.sumThenReset();
+            long response = p.response.sumThenReset();
+            if (calls > 0 || prompt > 0 || response > 0) {
+                rows.add(new Object[] { key.userId(), key.date(), calls, prompt, response });
+            }
+            // record() only uses today's key, so nothing can still be adding to older entries
+            if (key.date().isBefore(yesterday)) {
+                pending.remove(key, p);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        flushing = rows;
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+            rows.forEach(r -> storedThisMonth.invalidate((Integer) r[0]));
+        } catch (RuntimeException e) {
+            // Put the counts back so the next flush retries them
+            log.warn("Flushing Gemini usage failed: {}", e.getMessage());
+            rows.forEach(r -> {
+                Pending p = pending.computeIfAbsent(new Key((Integer) r[0], (LocalDate) r[1]), k -> new Pending());
+                p.calls.add((Long) r[2]);
+                p.prompt.add((Long) r[3]);
+                p.response.add((Long) r[4]);
+            });
+        } finally {
+            flushing = List.of();
+        }
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private record Key(Integer userId, LocalDate date) {
+    }
+
+    private static final class Pending {
+        final LongAdder calls = new LongAdder();
+        final LongAdder prompt = new LongAdder();
+        final LongAdder response = new LongAdder();
+    }
+}
@@ -0,0 +1,140 @@
+package com.ejindu.backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Postgres-backed record of writes sent with an Idempotency-Key. A request
+ * first claims its key; the winner runs and stores its response, everyone
+ * else waits for and replays that. A claim whose owner died is taken over
+ * after the lease. A key expires after the ttl even before the purge gets
+ * to it: an expired row is neither replayed nor in the way of a new claim.
+ * Plain JDBC in autocommit, so a claim is visible to other nodes before the
+ * request's own transaction starts.
+ */
+@Service
+@Slf4j
+public class IdempotencyStore {
+
+    private static final String CLAIM = """
+            INSERT INTO idempotency_key (id, user_id, idempotency_key, claimed_at, expires_at)
+            VALUES (gen_random_uuid(), ?, ?, ?, ?)
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE
+            SET    claimed_at = EXCLUDED.claimed_at, expires_at = EXCLUDED.expires_at,
+                   request_hash = NULL, status = NULL, content_type = NULL, body = NULL
+            WHERE  idempotency_key.expires_at <= EXCLUDED.claimed_at
+            """;
+
+    private static final String TAKE_OVER = """
+            UPDATE idempotency_key SET claimed_at = ?
+            WHERE  user_id = ? AND idempotency_key = ? AND status IS NULL AND claimed_at < ?
+            """;
+
+    private static final String PURGE = """
+            DELETE FROM idempotency_key
+            WHERE  id IN (SELECT id FROM idempotency_key WHERE expires_at < ? LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final int purgeBatchSize;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${idempotency.lease:PT1M}") Duration lease,
+            @Value("${idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    public record Stored(String requestHash, Integer status, String contentType, byte[] body) {
+
+        public boolean complete() {
+            return status != null;
+        }
+    }
+
+    // True when the caller now owns the key and should run the request
+    public boolean claim(Integer userId, String key) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(CLAIM, userId, key, now, now.plus(ttl)) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update(TAKE_OVER, now, userId, key, now.minus(lease)) == 1;
+    }
+
+    public Optional<Stored> find(Integer userId, String key) {
+        List<Stored> rows = jdbcTemplate.query("""
+                SELECT request_hash, status, content_type, body FROM idempotency_key
+                WHERE  user_id = ? AND idempotency_key = ? AND expires_at > ?""",
+                (rs, i) -> new Stored(rs.getString(1), (Integer) rs.getObject(2), rs.getString(3),
+                        rs.getBytes(4) == null ? null : gunzip(rs.getBytes(4))),
+                userId, key, LocalDateTime.now());
+        return rows.stream().findFirst();
+    }
+
+    public void complete(Integer userId, String key, String requestHash, int status, String contentType,
+            byte[] body) {
+        jdbcTemplate.update("""
+                UPDATE idempotency_key SET request_hash = ?, status = ?, content_type = ?, body = ?
+                WHERE  user_id = ? AND idempotency_key = ?""",
+                requestHash, status, contentType, gzip(body), userId, key);
+    }
+
+    // Forget a claim whose request failed, so a retry runs it again
+    public void release(Integer userId, String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE user_id = ? AND idempotency_key = ? AND status IS NULL",
+                userId, key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        int batch;
+        do {
+            // Small batches keep each delete's locks and WAL short
+            batch = jdbcTemplate.update(PURGE, now, purgeBatchSize);
+            removed += batch;
+        } while (batch == purgeBatchSize);
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+            zip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] stored) {
+        try (GZIPInputStream zip = new GZIPInputStream(new ByteArrayInputStream(stored))) {
+            return zip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
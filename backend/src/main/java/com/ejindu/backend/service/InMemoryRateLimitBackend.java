@@ -0,0 +1,83 @@
+package com.ejindu.backend.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lock-free token buckets: each bucket's state is an immutable snapshot
+ * swapped with CAS, so concurrent requests never block each other. Buckets
+ * idle for longer than the eviction window are dropped by a periodic sweep.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final long idleNanos;
+
+    public InMemoryRateLimitBackend(MeterRegistry registry,
+            @Value("${rate-limit.idle-eviction-minutes:10}") long idleMinutes) {
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+        Gauge.builder("rate_limit.buckets", buckets, ConcurrentHashMap::size).register(registry);
+    }
+
+    @Override
+    public long tryConsume(String key, Limit limit) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(limit.capacity()));
+        return bucket.tryConsume(limit, System.nanoTime());
+    }
+
+    @Override
+    public void refund(String key, Limit limit) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.refund(limit);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> now - b.state.get().refilledAt() > idleNanos);
+    }
+
+    private static final class Bucket {
+
+        private final AtomicReference<State> state;
+
+        Bucket(long capacity) {
+            this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        long tryConsume(Limit limit, long now) {
+            double perNano = limit.refillPerMinute() / TimeUnit.MINUTES.toNanos(1);
+            while (true) {
+                State current = state.get();
+                double tokens = Math.min(limit.capacity(), current.tokens() + (now - current.refilledAt()) * perNano);
+                if (tokens < 1) {
+                    return perNano > 0 ? (long) Math.ceil((1 - tokens) / perNano / 1_000_000) : Long.MAX_VALUE;
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    return 0;
+                }
+            }
+        }
+
+        void refund(Limit limit) {
+            state.updateAndGet(current -> new State(Math.min(limit.capacity(), current.tokens() + 1),
+                    current.refilledAt()));
+        }
+    }
+
+    private record State(double tokens, long refilledAt) {
+    }
+}
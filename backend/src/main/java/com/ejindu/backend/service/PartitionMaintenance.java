@@ -0,0 +1,179 @@
+package com.ejindu.backend.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Monthly range partitioning of workout by date, so date-range queries only
+ * touch the months they ask for; EXPLAIN on findByUserAndDateBetween lists
+ * just those partitions. exercise_set stays a plain table: sets are read and
+ * deleted by workout_exercise_id, which no date partitioning could prune.
+ * Existing tables are converted in one transaction once all beans are up
+ * but before the web server starts, so no request sees the table mid-move.
+ * After that a daily job keeps partitions created partitioning.months-ahead
+ * months in advance and, when partitioning.detach-after-months is set,
+ * detaches older months and renames them archive_* so they can be dumped
+ * and dropped. Their exercises, sets and analyses go to archive_* tables of
+ * the same month in the same transaction.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "partitioning.enabled", havingValue = "true")
+public class PartitionMaintenance implements SmartInitializingSingleton {
+
+    private static final String TABLE = "workout";
+    private static final Pattern MONTH = Pattern.compile("_y(\\d{4})m(\\d{2})$");
+    private static final long LOCK_KEY = 7_102_045L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${partitioning.detach-after-months:0}")
+    private int detachAfterMonths;
+
+    // Runs after Hibernate's schema update and before the web server and schedulers start
+    @Override
+    public void afterSingletonsInstantiated() {
+        convert();
+    }
+
+    public void convert() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Only one node converts; the others wait here and then see a partitioned table
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, LOCK_KEY);
+            if (isPartitioned(TABLE)) {
+                return;
+            }
+            log.info("Converting workout to a partitioned table");
+            YearMonth first = jdbcTemplate.queryForObject(
+                    "SELECT date_trunc('month', coalesce(min(date), current_date))::date FROM workout",
+                    (rs, i) -> YearMonth.from(rs.getDate(1).toLocalDate()));
+
+            jdbcTemplate.execute("ALTER TABLE workout RENAME TO workout_legacy");
+            jdbcTemplate.execute("CREATE TABLE workout (LIKE workout_legacy INCLUDING DEFAULTS)"
+                    + " PARTITION BY RANGE (date)");
+            jdbcTemplate.execute("ALTER TABLE workout ADD PRIMARY KEY (id, date)");
+            jdbcTemplate.execute("CREATE TABLE workout_default PARTITION OF workout DEFAULT");
+            for (YearMonth m = first; !m.isAfter(YearMonth.now().plusMonths(monthsAhead)); m = m.plusMonths(1)) {
+                createPartition(m);
+            }
+            jdbcTemplate.execute("INSERT INTO workout SELECT * FROM workout_legacy");
+            jdbcTemplate.execute("DROP TABLE workout_legacy CASCADE");
+            // Same name as the @Index on Workout, so schema update sees it as present
+            jdbcTemplate.execute("CREATE INDEX workout_user_date_idx ON workout (user_id, date)");
+        });
+        maintain();
+    }
+
+    @Scheduled(cron = "${partitioning.cron:0 30 1 * * *}")
+    public void maintain() {
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(now.plusMonths(i));
+        }
+        if (detachAfterMonths > 0) {
+            detachOlderThan(now.minusMonths(detachAfterMonths));
+        }
+    }
+
+    // Fails loudly rather than skipping a month that would then never be partitioned
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = from.plusMonths(1);
+        String bounds = " PARTITION OF " + TABLE + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (exists(partition)) {
+                return;
+            }
+            Boolean stranded = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM workout_default WHERE date >= ? AND date < ?)",
+                    Boolean.class, from, to);
+            if (!Boolean.TRUE.equals(stranded)) {
+                jdbcTemplate.execute("CREATE TABLE " + partition + bounds);
+                return;
+            }
+            // Rows logged for the month before its partition existed sit in the default partition,
+            // and Postgres won't create a partition that rows there belong to
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION workout_default");
+            jdbcTemplate.execute("CREATE TABLE " + partition + bounds);
+            int moved = jdbcTemplate.update("INSERT INTO " + partition
+                    + " SELECT * FROM workout_default WHERE date >= ? AND date < ?", from, to);
+            jdbcTemplate.update("DELETE FROM workout_default WHERE date >= ? AND date < ?", from, to);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION workout_default DEFAULT");
+            log.info("Created {} and moved {} workouts into it from workout_default", partition, moved);
+        });
+    }
+
+    // Exercises, sets and analyses have no FK to the partitioned workout, so they are moved to
+    // archive tables alongside it; otherwise they would be left behind as unnoticed orphans
+    private void detachOlderThan(YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN   pg_class c ON c.oid = i.inhrelid
+                JOIN   pg_class p ON p.oid = i.inhparent
+                WHERE  p.relname = ?""", String.class, TABLE);
+        for (String partition : partitions) {
+            Matcher m = MONTH.matcher(partition);
+            if (m.find() && YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))).isBefore(cutoff)) {
+                transactionTemplate.executeWithoutResult(status -> detach(partition, m.group()));
+            }
+        }
+    }
+
+    private void detach(String partition, String suffix) {
+        String exercises = "archive_workout_exercise" + suffix;
+        String sets = "archive_exercise_set" + suffix;
+        String analyses = "archive_workout_analysis" + suffix;
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO archive_" + partition);
+
+        jdbcTemplate.execute("CREATE TABLE " + exercises + " AS SELECT e.* FROM workout_exercise e"
+                + " WHERE e.workout_id IN (SELECT id FROM archive_" + partition + ")");
+        jdbcTemplate.execute("CREATE TABLE " + sets + " AS SELECT s.* FROM exercise_set s"
+                + " WHERE s.workout_exercise_id IN (SELECT id FROM " + exercises + ")");
+        jdbcTemplate.execute("CREATE TABLE " + analyses + " AS SELECT a.* FROM workout_analysis a"
+                + " WHERE a.workout_id IN (SELECT id FROM archive_" + partition + ")");
+
+        jdbcTemplate.update("DELETE FROM exercise_set WHERE workout_exercise_id IN (SELECT id FROM " + exercises + ")");
+        jdbcTemplate.update("DELETE FROM workout_exercise WHERE id IN (SELECT id FROM " + exercises + ")");
+        jdbcTemplate.update("DELETE FROM workout_analysis WHERE id IN (SELECT id FROM " + analyses + ")");
+        jdbcTemplate.update("DELETE FROM analysis_job WHERE workout_id IN (SELECT id FROM archive_" + partition + ")");
+        log.info("Detached {} as archive_{}, with its exercises, sets and analyses", partition, partition);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private boolean isPartitioned(String table) {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid"
+                        + " WHERE c.relname = ?)", Boolean.class, table);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "%s_y%dm%02d".formatted(TABLE, month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,30 @@
+package com.ejindu.backend.service;
+
+/**
+ * Token-bucket store used by RateLimitFilter. The in-memory implementation is
+ * per node; provide another bean (e.g. backed by Redis or Postgres) to share
+ * buckets across nodes.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Takes one token from the bucket identified by key.
+     *
+     * @return 0 if the token was granted, otherwise how many milliseconds
+     *         until one will be available
+     */
+    long tryConsume(String key, Limit limit);
+
+    /**
+     * Gives back a token taken by tryConsume, for a request that was then
+     * rejected by another bucket. Never fills the bucket past its capacity.
+     */
+    void refund(String key, Limit limit);
+
+    record Limit(long capacity, double refillPerMinute) {
+
+        public boolean enabled() {
+            return capacity > 0;
+        }
+    }
+}
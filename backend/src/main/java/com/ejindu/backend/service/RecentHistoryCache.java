@@ -0,0 +1,162 @@
+package com.ejindu.backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ejindu.backend.dto.WorkoutDto;
+import com.ejindu.backend.dto.WorkoutExerciseDto;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.mapper.WorkoutMapper;
+import com.ejindu.backend.repository.WorkoutRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Each active user's workouts from the last recent-history.window-days days
+ * onwards, as DTOs. Date-range reads starting inside that window are served
+ * from memory. WorkoutService applies its writes here after commit, on top
+ * of whatever a concurrent load produced, so the two can't race into a stale
+ * entry. Users idle for recent-history.idle-minutes are dropped, and the
+ * total estimated size is capped at recent-history.max-mb.
+ *
+ * Writes only reach the cache on the node that handled them. Every window
+ * is therefore reloaded recent-history.max-age-seconds after it was last
+ * written, however often it is read, which bounds how long another node can
+ * serve a deleted or outdated workout.
+ */
+@Component
+public class RecentHistoryCache {
+
+    // Everything from the window start on, including workouts logged ahead of time
+    private static final LocalDate OPEN_END = LocalDate.of(9999, 12, 31);
+
+    private final WorkoutRepository workoutRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Integer, Window> windows;
+    private final int windowDays;
+
+    public RecentHistoryCache(WorkoutRepository workoutRepository, TransactionTemplate transactionTemplate,
+            MeterRegistry registry,
+            @Value("${recent-history.window-days:60}") int windowDays,
+            @Value("${recent-history.max-mb:64}") long maxMb,
+            @Value("${recent-history.idle-minutes:30}") long idleMinutes,
+            @Value("${recent-history.max-age-seconds:60}") long maxAgeSeconds) {
+        this.workoutRepository = workoutRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setReadOnly(true);
+        this.windowDays = windowDays;
+        this.windows = Caffeine.newBuilder()
+                .maximumWeight(maxMb * 1024 * 1024)
+                .weigher((Integer userId, Window w) -> (int) Math.min(Integer.MAX_VALUE, w.bytes()))
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .expireAfterWrite(Duration.ofSeconds(maxAgeSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, windows, "recentHistory");
+        Gauge.builder("recent_history.bytes", windows,
+                c -> c.policy().eviction().flatMap(e -> e.weightedSize().stream().boxed().findFirst()).orElse(0L))
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public Optional<List<WorkoutDto>> between(User user, LocalDate from, LocalDate to) {
+        if (from.isBefore(LocalDate.now().minusDays(windowDays))) {
+            return Optional.empty();
+        }
+        Window window = windows.get(user.getId(), id -> load(user));
+        if (from.isBefore(window.from())) {
+            return Optional.empty();
+        }
+        return Optional.of(window.workouts().stream()
+                .filter(w -> !w.getDate().isBefore(from) && !w.getDate().isAfter(to))
+                .toList());
+    }
+
+    /** The entity is mapped after commit, once generated ids have been assigned. */
+    public void saved(Integer userId, Workout workout) {
+        afterCommit(() -> windows.asMap().computeIfPresent(userId,
+                (id, window) -> window.with(WorkoutMapper.toDto(workout))));
+    }
+
+    public void removed(Integer userId, Collection<UUID> workoutIds) {
+        afterCommit(() -> windows.asMap().computeIfPresent(userId, (id, window) -> window.without(workoutIds)));
+    }
+
+    public void evict(Integer userId) {
+        afterCommit(() -> windows.invalidate(userId));
+    }
+
+    private Window load(User user) {
+        LocalDate from = LocalDate.now().minusDays(windowDays);
+        List<WorkoutDto> workouts = transactionTemplate.execute(status ->
+                workoutRepository.findByUserAndDateBetween(user, from, OPEN_END).stream()
+                        .map(WorkoutMapper::toDto)
+                        .toList());
+        return Window.of(from, workouts);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    record Window(LocalDate from, List<WorkoutDto> workouts, long bytes) {
+
+        static Window of(LocalDate from, List<WorkoutDto> workouts) {
+            List<WorkoutDto> sorted = new ArrayList<>(workouts);
+            sorted.sort(Comparator.comparing(WorkoutDto::getDate));
+            return new Window(from, List.copyOf(sorted), 64 + sorted.stream().mapToLong(Window::estimate).sum());
+        }
+
+        Window with(WorkoutDto dto) {
+            List<WorkoutDto> list = new ArrayList<>(workouts);
+            list.removeIf(w -> w.getId().equals(dto.getId()));
+            if (!dto.getDate().isBefore(from)) {
+                list.add(dto);
+            }
+            return of(from, list);
+        }
+
+        Window without(Collection<UUID> ids) {
+            return of(from, workouts.stream().filter(w -> !ids.contains(w.getId())).toList());
+        }
+
+        // Rough retained size: object headers, UUIDs, strings and list overhead
+        private static long estimate(WorkoutDto w) {
+            long bytes = 160 + chars(w.getName()) + chars(w.getNotes());
+            for (WorkoutExerciseDto ex : w.getExercises()) {
+                bytes += 120 + chars(ex.getName()) + 72L * ex.getSets().size();
+            }
+            return bytes;
+        }
+
+        private static long chars(String s) {
+            return s == null ? 0 : 40 + s.length();
+        }
+    }
+}
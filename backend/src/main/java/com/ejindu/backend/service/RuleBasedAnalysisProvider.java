@@ -0,0 +1,255 @@
+package com.ejindu.backend.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ejindu.backend.entity.ExerciseSet;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.entity.WorkoutExercise;
+import com.ejindu.backend.enums.Goal;
+import com.ejindu.backend.repository.WorkoutRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deterministic feedback computed from the user's own history: training
+ * consistency, volume swings, stalled lifts, missed leg days and rep ranges
+ * that don't match the goal. Runs in-process in milliseconds.
+ *
+ * History is always re-read here rather than taken from the arguments, so
+ * detached workouts (e.g. from the background worker) are safe to pass in.
+ */
+@Service
+@RequiredArgsConstructor
+public class RuleBasedAnalysisProvider implements AnalysisProvider {
+
+    private static final int HISTORY_DAYS = 42;
+    private static final int STALL_DAYS = 21;
+    private static final int LEG_GAP_DAYS = 21;
+    private static final int RECENT_SESSIONS = 4;
+    private static final double VOLUME_SWING = 0.30;
+
+    private static final Pattern LEG_EXERCISE = Pattern.compile(
+            "squat|leg|lunge|deadlift|rdl|calf|calves|hamstring|quad|glute|hip thrust|step.?up",
+            Pattern.CASE_INSENSITIVE);
+
+    private final WorkoutRepository workoutRepository;
+
+    @Override
+    public String name() {
+        return "rules";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<String> analyseWorkout(Workout w, Goal goal) {
+        User user = w.getUser();
+        List<Workout> history = sorted(workoutRepository.findByUserAndDateBetween(
+                user, w.getDate().minusDays(HISTORY_DAYS), w.getDate()));
+
+        Workout current = history.stream()
+                .filter(h -> h.getId().equals(w.getId()))
+                .findFirst()
+                .orElse(w);
+        List<Workout> previous = history.stream()
+                .filter(h -> !h.getId().equals(current.getId()))
+                .toList();
+
+        List<String> notes = new ArrayList<>();
+        volumeAgainstRecent(current, previous, notes);
+        stalledLifts(history, current.getDate(), notes);
+        legDay(history, current.getDate(), notes);
+        repRange(List.of(current), goal, notes);
+
+        return Mono.just(render(user.getFirstName(), notes));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<String> analysePeriod(List<Workout> list, LocalDate from, LocalDate to, Goal goal) {
+        User user = list.get(0).getUser();
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+
+        // The previous period of the same length is the baseline for trends
+        List<Workout> all = sorted(workoutRepository.findByUserAndDateBetween(user, from.minusDays(days), to));
+        List<Workout> inPeriod = all.stream().filter(w -> !w.getDate().isBefore(from)).toList();
+        List<Workout> before = all.stream().filter(w -> w.getDate().isBefore(from)).toList();
+
+        List<String> notes = new ArrayList<>();
+        consistency(inPeriod, days, notes);
+        volumeAgainstPrevious(inPeriod, before, notes);
+        stalledLifts(all, to, notes);
+        legDay(all, to, notes);
+        repRange(inPeriod, goal, notes);
+
+        return Mono.just(render(user.getFirstName(), notes));
+    }
+
+    private void consistency(List<Workout> workouts, long days, List<String> notes) {
+        double weeks = Math.max(1.0, days / 7.0);
+        double perWeek = workouts.size() / weeks;
+        if (perWeek < 2) {
+            notes.add("You averaged %.1f sessions a week. Consistency drives progress, so aim for at least 2-3."
+                    .formatted(perWeek));
+        } else if (perWeek >= 3) {
+            notes.add("You trained %.1f times a week on average. That's great consistency."
+                    .formatted(perWeek));
+        }
+    }
+
+    private void volumeAgainstRecent(Workout current, List<Workout> previous, List<String> notes) {
+        List<Workout> recent = previous.stream()
+                .filter(w -> !w.getDate().isAfter(current.getDate()))
+                .sorted(Comparator.comparing(Workout::getDate).reversed())
+                .limit(RECENT_SESSIONS)
+                .toList();
+        if (recent.isEmpty()) {
+            return;
+        }
+
+        double average = recent.stream().mapToLong(RuleBasedAnalysisProvider::volume).average().orElse(0);
+        long today = volume(current);
+        if (average <= 0) {
+            return;
+        }
+
+        double change = (today - average) / average;
+        if (change <= -VOLUME_SWING) {
+            notes.add("This session's volume (%,d lbs) was %d%% below your recent average. Fine for a deload, but don't let it become a habit."
+                    .formatted(today, Math.round(-change * 100)));
+        } else if (change >= VOLUME_SWING) {
+            notes.add("This session's volume (%,d lbs) was %d%% above your recent average. Nice push, just keep an eye on recovery."
+                    .formatted(today, Math.round(change * 100)));
+        }
+    }
+
+    private void volumeAgainstPrevious(List<Workout> current, List<Workout> previous, List<String> notes) {
+        long now = current.stream().mapToLong(RuleBasedAnalysisProvider::volume).sum();
+        long then = previous.stream().mapToLong(RuleBasedAnalysisProvider::volume).sum();
+        if (then <= 0) {
+            return;
+        }
+
+        double change = (double) (now - then) / then;
+        if (change <= -VOLUME_SWING) {
+            notes.add("Your total volume dropped %d%% compared with the previous period.".formatted(Math.round(-change * 100)));
+        } else if (change >= VOLUME_SWING) {
+            notes.add("Your total volume rose %d%% compared with the previous period.".formatted(Math.round(change * 100)));
+        }
+    }
+
+    private void stalledLifts(List<Workout> history, LocalDate asOf, List<String> notes) {
+        LocalDate cutoff = asOf.minusDays(STALL_DAYS);
+        Map<String, double[]> best = new TreeMap<>();  // name -> {best before cutoff, best since, sessions since}
+
+        for (Workout w : history) {
+            boolean recent = w.getDate().isAfter(cutoff);
+            for (WorkoutExercise ex : w.getExercises()) {
+                double top = ex.getSets().stream()
+                        .mapToDouble(RuleBasedAnalysisProvider::estimatedMax)
+                        .max()
+                        .orElse(0);
+                if (top <= 0) {
+                    continue;
+                }
+                double[] b = best.computeIfAbsent(normalise(ex.getName()), k -> new double[3]);
+                if (recent) {
+                    b[1] = Math.max(b[1], top);
+                    b[2]++;
+                } else {
+                    b[0] = Math.max(b[0], top);
+                }
+            }
+        }
+
+        List<String> stalled = best.entrySet().stream()
+                .filter(e -> e.getValue()[0] > 0 && e.getValue()[2] >= 2 && e.getValue()[1] <= e.getValue()[0])
+                .map(Map.Entry::getKey)
+                .toList();
+        if (!stalled.isEmpty()) {
+            notes.add("Your %s %s stalled for %d+ days. Try a small load jump, an extra set, or a different rep scheme."
+                    .formatted(String.join(", ", stalled), stalled.size() == 1 ? "has" : "have", STALL_DAYS));
+        }
+    }
+
+    private void legDay(List<Workout> history, LocalDate asOf, List<String> notes) {
+        LocalDate since = asOf.minusDays(LEG_GAP_DAYS);
+        if (history.stream().noneMatch(w -> w.getDate().isBefore(since.plusDays(1)))) {
+            return; // not enough history to judge
+        }
+
+        boolean trainedLegs = history.stream()
+                .filter(w -> w.getDate().isAfter(since))
+                .flatMap(w -> w.getExercises().stream())
+                .anyMatch(ex -> LEG_EXERCISE.matcher(ex.getName()).find());
+        if (!trainedLegs) {
+            notes.add("You haven't trained legs in the last %d days. Add a squat, deadlift or lunge day."
+                    .formatted(LEG_GAP_DAYS));
+        }
+    }
+
+    private void repRange(List<Workout> workouts, Goal goal, List<String> notes) {
+        if (goal == null || goal == Goal.BOTH) {
+            return;
+        }
+
+        double averageReps = workouts.stream()
+                .flatMap(w -> w.getExercises().stream())
+                .flatMap(ex -> ex.getSets().stream())
+                .mapToInt(ExerciseSet::getReps)
+                .average()
+                .orElse(0);
+        if (averageReps == 0) {
+            return;
+        }
+
+        if (goal == Goal.STRENGTH && averageReps > 8) {
+            notes.add("Your sets averaged %.0f reps. For strength, go heavier in the 3-6 rep range.".formatted(averageReps));
+        } else if (goal == Goal.MUSCLE_GROWTH && averageReps < 6) {
+            notes.add("Your sets averaged %.0f reps. For muscle growth, spend more time in the 8-12 rep range.".formatted(averageReps));
+        }
+    }
+
+    private String render(String name, List<String> notes) {
+        if (notes.isEmpty()) {
+            return "Nice work, %s. Nothing stands out: your volume is steady and your lifts are moving. Keep it up!"
+                    .formatted(name);
+        }
+
+        StringBuilder sb = new StringBuilder("Hey %s, here's a quick read on your training:\n".formatted(name));
+        notes.forEach(n -> sb.append("\n- ").append(n));
+        return sb.toString();
+    }
+
+    static long volume(Workout w) {
+        return w.getExercises().stream()
+                .flatMap(ex -> ex.getSets().stream())
+                .mapToLong(s -> (long) s.getReps() * s.getWeightLbs())
+                .sum();
+    }
+
+    // Epley estimate of a one-rep max
+    private static double estimatedMax(ExerciseSet s) {
+        return s.getWeightLbs() * (1 + s.getReps() / 30.0);
+    }
+
+    private static String normalise(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Workout> sorted(List<Workout> workouts) {
+        return workouts.stream().sorted(Comparator.comparing(Workout::getDate)).toList();
+    }
+}
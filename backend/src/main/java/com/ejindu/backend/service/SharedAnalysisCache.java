@@ -0,0 +1,192 @@
+package com.ejindu.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ejindu.backend.entity.SharedAnalysis;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.enums.Goal;
+import com.ejindu.backend.repository.SharedAnalysisRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Content-addressed cache of LLM workout feedback, shared across users. The
+ * key is a hash of the normalised workout (name, exercises, loads rounded to
+ * 5 lbs, goal) and never includes who logged it. Workouts with notes are
+ * personal and bypass the cache.
+ * <p>
+ * The prompt never names the user either: the model writes {{name}} and
+ * the text is stored that way, with the caller's first name filled in only
+ * when it is served, cached or not.
+ */
+@Component
+@Slf4j
+public class SharedAnalysisCache {
+
+    static final String NAME_PLACEHOLDER = "{{name}}";
+    private static final int WEIGHT_STEP = 5;
+
+    private final SharedAnalysisRepository repository;
+    private final Cache<String, String> memory;
+    private final Duration ttl;
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+
+    public SharedAnalysisCache(SharedAnalysisRepository repository, MeterRegistry registry,
+            @Value("${analysis.shared-cache.max-entries:10000}") long maxEntries,
+            @Value("${analysis.shared-cache.ttl-days:30}") long ttlDays) {
+        this.repository = repository;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, memory, "sharedAnalysis");
+        this.memoryHits = registry.counter("analysis.shared_cache", "result", "hit_memory");
+        this.dbHits = registry.counter("analysis.shared_cache", "result", "hit_db");
+        this.misses = registry.counter("analysis.shared_cache", "result", "miss");
+    }
+
+    public Mono<String> lookupOrCompute(Workout w, Goal goal, Mono<String> compute) {
+        String name = w.getUser().getFirstName();
+        Optional<String> key = fingerprint(w, goal);
+        if (key.isEmpty()) {
+            return compute.map(text -> personalise(text, name));
+        }
+
+        return Mono.defer(() -> lookup(key.get())
+                        .map(Mono::just)
+                        .orElseGet(() -> compute.doOnNext(text -> store(key.get(), text))))
+                .map(text -> personalise(text, name));
+    }
+
+    public Flux<String> lookupOrStream(Workout w, Goal goal, Flux<String> stream) {
+        String name = w.getUser().getFirstName();
+        Optional<String> key = fingerprint(w, goal);
+        if (key.isEmpty()) {
+            return personalise(stream, name);
+        }
+
+        return Flux.defer(() -> lookup(key.get())
+                .map(text -> Flux.just(personalise(text, name)))
+                .orElseGet(() -> {
+                    StringBuilder assembled = new StringBuilder();
+                    return personalise(stream
+                            .doOnNext(assembled::append)
+                            .doOnComplete(() -> store(key.get(), assembled.toString())), name);
+                }));
+    }
+
+    @Scheduled(cron = "${analysis.shared-cache.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = repository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        log.info("Purged {} expired shared analyses", removed);
+    }
+
+    private Optional<String> lookup(String key) {
+        String cached = memory.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return Optional.of(cached);
+        }
+
+        Optional<String> stored = repository
+                .findByFingerprintAndCreatedAtAfter(key, LocalDateTime.now().minus(ttl))
+                .map(SharedAnalysis::getAnalysis);
+        if (stored.isPresent()) {
+            dbHits.increment();
+            memory.put(key, stored.get());
+        } else {
+            misses.increment();
+        }
+        return stored;
+    }
+
+    private void store(String key, String text) {
+        if (text.isBlank()) {
+            return;
+        }
+        memory.put(key, text);
+        repository.upsert(key, text, LocalDateTime.now());
+    }
+
+    static String personalise(String text, String name) {
+        return text.replace(NAME_PLACEHOLDER, name == null || name.isBlank() ? "there" : name);
+    }
+
+    // A chunk can end part-way through the placeholder; that tail waits for the next chunk
+    static Flux<String> personalise(Flux<String> chunks, String name) {
+        return Flux.defer(() -> {
+            StringBuilder pending = new StringBuilder();
+            return chunks
+                    .concatMap(chunk -> {
+                        pending.append(chunk);
+                        int ready = pending.length() - partialPlaceholder(pending);
+                        String text = pending.substring(0, ready);
+                        pending.delete(0, ready);
+                        return text.isEmpty() ? Mono.<String>empty() : Mono.just(personalise(text, name));
+                    })
+                    .concatWith(Mono.fromSupplier(() -> personalise(pending.toString(), name))
+                            .filter(text -> !text.isEmpty()));
+        });
+    }
+
+    // Length of the longest proper prefix of the placeholder that the text ends with
+    private static int partialPlaceholder(CharSequence text) {
+        for (int length = Math.min(NAME_PLACEHOLDER.length() - 1, text.length()); length > 0; length--) {
+            if (NAME_PLACEHOLDER.startsWith(text.subSequence(text.length() - length, text.length()).toString())) {
+                return length;
+            }
+        }
+        return 0;
+    }
+
+    static Optional<String> fingerprint(Workout w, Goal goal) {
+        if (w.getNotes() != null && !w.getNotes().isBlank()) {
+            return Optional.empty();
+        }
+
+        String exercises = w.getExercises().stream()
+                .map(ex -> normalise(ex.getName()) + ":" + ex.getSets().stream()
+                        .map(s -> s.getReps() + "x" + Math.round((double) s.getWeightLbs() / WEIGHT_STEP) * WEIGHT_STEP)
+                        .collect(Collectors.joining(",")))
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.joining("|"));
+        String canonical = "v1;" + goal + ";" + normalise(w.getName()) + ";" + exercises;
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return Optional.of(HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalise(String s) {
+        return s == null ? "" : s.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ejindu.backend.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ejindu.backend.entity.BatchCheckpoint;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.enums.Goal;
+import com.ejindu.backend.repository.BatchCheckpointRepository;
+import com.ejindu.backend.repository.PeriodAnalysisRepository;
+import com.ejindu.backend.repository.UserRepository;
+import com.ejindu.backend.repository.WorkoutRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Pre-generates last week's (Monday to Sunday) period analysis for every user
+ * who trained that week, overnight when Gemini is quiet. Users are paged by
+ * id and the last finished id is checkpointed after every chunk, so a restart
+ * resumes mid-run. Users whose summary already exists are skipped; logging or
+ * editing a workout deletes the summaries it falls into, so those get rebuilt
+ * on the next night.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "analysis.weekly.enabled", matchIfMissing = true)
+public class WeeklySummaryScheduler {
+
+    static final String JOB = "weekly-summary";
+
+    private final BatchCheckpointRepository checkpointRepository;
+    private final WorkoutRepository workoutRepository;
+    private final UserRepository userRepository;
+    private final PeriodAnalysisRepository periodAnalysisRepository;
+    private final AnalysisService analysisService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analysis.weekly.zone:UTC}")
+    private ZoneId zone;
+
+    @Value("${analysis.weekly.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${analysis.weekly.requests-per-minute:30}")
+    private int requestsPerMinute;
+
+    @Value("${analysis.weekly.concurrency:4}")
+    private int concurrency;
+
+    @Value("${analysis.weekly.goals:STRENGTH}")
+    private List<Goal> goals;
+
+    @Value("${analysis.weekly.lease-minutes:30}")
+    private long leaseMinutes;
+
+    @Scheduled(cron = "${analysis.weekly.cron:0 0 2 * * *}", zone = "${analysis.weekly.zone:UTC}")
+    public void run() {
+        LocalDate thisMonday = LocalDate.now(zone).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate from = thisMonday.minusWeeks(1);
+        LocalDate to = thisMonday.minusDays(1);
+
+        if (!lease()) {
+            log.info("Weekly summaries already running on another node");
+            return;
+        }
+
+        BatchCheckpoint checkpoint = checkpointRepository.findById(JOB).orElseThrow();
+        int after = from.equals(checkpoint.getPeriodStart()) ? checkpoint.getLastUserId() : 0;
+        log.info("Generating weekly summaries for {} to {}, resuming after user {}", from, to, after);
+
+        Duration spacing = Duration.ofMillis(60_000L / Math.max(1, requestsPerMinute));
+        List<Integer> chunk;
+        do {
+            chunk = workoutRepository.findActiveUserIds(from, to, after, PageRequest.of(0, chunkSize));
+
+            Flux.fromIterable(chunk)
+                    .flatMapIterable(userId -> goals.stream().map(goal -> new Task(userId, goal)).toList())
+                    .filter(task -> !alreadyDone(task, from, to))
+                    .delayElements(spacing)
+                    .publishOn(Schedulers.boundedElastic())
+                    .flatMap(task -> generate(task, from, to), concurrency)
+                    .then()
+                    .block();
+
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1);
+                save(from, after, true);
+            }
+        } while (chunk.size() == chunkSize);
+
+        // Finished: start from the top next night to pick up invalidated summaries
+        save(from, 0, false);
+        log.info("Weekly summaries for {} done", from);
+    }
+
+    private boolean alreadyDone(Task task, LocalDate from, LocalDate to) {
+        User user = User.builder().id(task.userId()).build();
+        return periodAnalysisRepository.existsByUserAndFromDateAndToDateAndGoal(user, from, to, task.goal());
+    }
+
+    private Mono<Void> generate(Task task, LocalDate from, LocalDate to) {
+        // Prompts are built inside the transaction, the Gemini call happens outside it
+        Mono<String> analysis = transactionTemplate.execute(status -> userRepository.findById(task.userId())
+                .map(user -> {
+                    List<Workout> list = workoutRepository.findByUserAndDateBetween(user, from, to);
+                    return analysisService.analysePeriod(list, from, to, task.goal());
+                })
+                .orElse(Mono.empty()));
+
+        return Mono.justOrEmpty(analysis)
+                .flatMap(mono -> mono)
+                .doOnError(e -> log.warn("Weekly summary for user {} failed: {}", task.userId(), e.toString()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private boolean lease() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer locked = transactionTemplate.execute(status -> {
+            checkpointRepository.createIfAbsent(JOB);
+            return checkpointRepository.tryLock(JOB, now, now.plusMinutes(leaseMinutes));
+        });
+        return locked != null && locked == 1;
+    }
+
+    private void save(LocalDate periodStart, int lastUserId, boolean keepLease) {
+        transactionTemplate.executeWithoutResult(status -> {
+            BatchCheckpoint checkpoint = checkpointRepository.findById(JOB).orElseThrow();
+            checkpoint.setPeriodStart(periodStart);
+            checkpoint.setLastUserId(lastUserId);
+            checkpoint.setLockedUntil(keepLease ? LocalDateTime.now().plusMinutes(leaseMinutes) : null);
+        });
+    }
+
+    private record Task(Integer userId, Goal goal) {
+    }
+}
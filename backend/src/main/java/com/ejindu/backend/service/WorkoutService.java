@@ -1,12 +1,20 @@
 package com.ejindu.backend.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.ejindu.backend.dto.WorkoutDto;
@@ -14,11 +22,16 @@ import com.ejindu.backend.entity.ExerciseSet;
 import com.ejindu.backend.entity.User;
 import com.ejindu.backend.entity.Workout;
 import com.ejindu.backend.entity.WorkoutExercise;
+import com.ejindu.backend.enums.WorkoutStorage;
 import com.ejindu.backend.mapper.WorkoutMapper;
+import com.ejindu.backend.repository.AnalysisJobRepository;
+import com.ejindu.backend.repository.ExerciseSetRepository;
+import com.ejindu.backend.repository.PeriodAnalysisRepository;
+import com.ejindu.backend.repository.WorkoutAnalysisRepository;
+import com.ejindu.backend.repository.WorkoutExcerciseRepository;
 import com.ejindu.backend.repository.WorkoutRepository;
 
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 
 @Transactional
@@ -27,21 +40,61 @@ import lombok.RequiredArgsConstructor;
 public class WorkoutService {
 
     private final WorkoutRepository workoutRepository;
+    private final WorkoutExcerciseRepository exerciseRepository;
+    private final ExerciseSetRepository setRepository;
+    private final WorkoutAnalysisRepository analysisRepository;
+    private final AnalysisJobRepository analysisJobRepository;
+    private final PeriodAnalysisRepository periodAnalysisRepository;
+    private final RecentHistoryCache recentHistory;
+
+    @Value("${workout.storage:RELATIONAL}")
+    private WorkoutStorage storage;
 
     public WorkoutDto createWorkout(WorkoutDto workoutDto, User user) {
-        Workout workoutEntity = WorkoutMapper.toEntity(workoutDto, user);
+        Workout workoutEntity = WorkoutMapper.toEntity(workoutDto, user, storage);
         Workout savedWorkout = workoutRepository.save(workoutEntity);
+        analysisJobRepository.enqueue(savedWorkout.getId());
+        periodAnalysisRepository.deleteCovering(user.getId(), savedWorkout.getDate());
+        recentHistory.saved(user.getId(), savedWorkout);
         WorkoutDto result = WorkoutMapper.toDto(savedWorkout);
         return result;
     }
 
-    public List<WorkoutDto> getWorkoutsBetween(User user, LocalDate from, LocalDate to) {
-        return workoutRepository.findByUserAndDateBetween(user, from, to).stream()
-                .map(WorkoutMapper::toDto)
+    // Depth as in FieldSelection: 0 workouts only, 1 with exercises, 2 with sets
+    @Transactional(readOnly = true)
+    public List<WorkoutDto> getWorkoutsBetween(User user, LocalDate from, LocalDate to, int depth) {
+        Optional<List<WorkoutDto>> recent = recentHistory.between(user, from, to);
+        if (recent.isPresent()) {
+            return recent.get().stream()
+                    .map(w -> WorkoutMapper.toDto(w, depth))
+                    .toList();
+        }
+        return findBetween(user, from, to, depth).stream()
+                .map(w -> WorkoutMapper.toDto(w, depth))
+                .toList();
+    }
+
+    private List<Workout> findBetween(User user, LocalDate from, LocalDate to, int depth) {
+        // Exercises are joined in so that every one is in the session before the first sets
+        // load; taken one workout at a time from the L2 cache, each batch would hold only a
+        // single workout's exercises. Documents come with the row anyway.
+        if (depth >= 1 && storage == WorkoutStorage.RELATIONAL) {
+            return workoutRepository.findWithExercisesByUserAndDateBetween(user, from, to);
+        }
+        return workoutRepository.findByUserAndDateBetween(user, from, to);
+    }
+
+    // Most recent workouts containing the exercise, whichever storage mode they are in
+    @Transactional(readOnly = true)
+    public List<WorkoutDto> getWorkoutsWithExercise(User user, String exercise, int limit, int depth) {
+        return workoutRepository.findByUserIdAndExerciseName(user.getId(), exercise,
+                        PageRequest.of(0, Math.min(Math.max(limit, 1), 100))).stream()
+                .map(w -> WorkoutMapper.toDto(w, depth))
                 .toList();
     }
 
-    public WorkoutDto getWorkoutById(UUID workoutId, User user) {
+    @Transactional(readOnly = true)
+    public WorkoutDto getWorkoutById(UUID workoutId, User user, int depth) {
         Workout workout = workoutRepository.findById(workoutId)
                 .orElseThrow(() -> new EntityNotFoundException("Workout not found"));
 
@@ -49,7 +102,28 @@ public class WorkoutService {
             throw new AccessDeniedException("Not your workout");
         }
 
-        return WorkoutMapper.toDto(workout);
+        return WorkoutMapper.toDto(workout, depth);
+    }
+
+    // Analysis reads the graph after this transaction has ended, so it is loaded in full here
+    @Transactional(readOnly = true)
+    public Workout getForAnalysis(UUID workoutId, User user) {
+        Workout workout = workoutRepository.findById(workoutId)
+                .filter(w -> w.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        initialize(workout);
+        return workout;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Workout> getForAnalysis(User user, LocalDate from, LocalDate to) {
+        List<Workout> workouts = workoutRepository.findByUserAndDateBetween(user, from, to);
+        workouts.forEach(WorkoutService::initialize);
+        return workouts;
+    }
+
+    private static void initialize(Workout workout) {
+        workout.getExercises().forEach(ex -> Hibernate.initialize(ex.getSets()));
     }
 
     public void deleteWorkout(UUID workoutId, User user) {
@@ -59,7 +133,18 @@ public class WorkoutService {
             throw new AccessDeniedException("Not your workout");
         }
 
-        workoutRepository.delete(workout);
+        deleteWorkoutsByIds(List.of(workout.getId()));
+        periodAnalysisRepository.deleteCovering(user.getId(), workout.getDate());
+        recentHistory.removed(user.getId(), List.of(workout.getId()));
+    }
+
+    // Bulk deletes in FK order instead of cascading through the loaded graph
+    public void deleteWorkoutsByIds(Collection<UUID> workoutIds) {
+        analysisJobRepository.deleteByWorkoutIds(workoutIds);
+        analysisRepository.deleteByWorkoutIds(workoutIds);
+        setRepository.deleteByWorkoutIds(workoutIds);
+        exerciseRepository.deleteByWorkoutIds(workoutIds);
+        workoutRepository.deleteByIds(workoutIds);
     }
 
     public WorkoutDto updateWorkout(UUID id, WorkoutDto dto, User owner) {
@@ -71,36 +156,55 @@ public class WorkoutService {
             throw new AccessDeniedException("Not your workout");
         }
 
+        // Summaries of both the old and the new date are now stale
+        periodAnalysisRepository.deleteCovering(owner.getId(), existing.getDate());
+        periodAnalysisRepository.deleteCovering(owner.getId(), dto.getDate());
+
         // Update workout
         existing.setName(dto.getName());
         existing.setDate(dto.getDate());
         existing.setNotes(dto.getNotes());
 
-        // Clear and recreate exercises
-        existing.getExercises().clear();
-        List<WorkoutExercise> exercises = dto.getExercises().stream()
-                .map(exDto -> {
-                    WorkoutExercise exercise = WorkoutExercise.builder()
-                            .name(exDto.getName())
-                            .workout(existing)
-                            .build();
-
-                    List<ExerciseSet> sets = exDto.getSets().stream()
-                            .map(setDto -> ExerciseSet.builder()
-                                    .reps(setDto.getReps())
-                                    .weightLbs(setDto.getWeightLbs())
-                                    .workoutExercise(exercise)
-                                    .build())
-                            .toList();
-
-                    exercise.setSets(sets);
-                    return exercise;
-                })
-                .toList();
-
-        existing.setExercises(exercises);
+        // The old rows are replaced wholesale; clearing the inverse-side collection alone would leave them behind
+        setRepository.deleteByWorkoutIds(List.of(id));
+        exerciseRepository.deleteByWorkoutIds(List.of(id));
+
+        if (storage == WorkoutStorage.DOCUMENT) {
+            existing.setExercises(new ArrayList<>());
+            existing.setDocument(WorkoutMapper.toDocument(dto.getExercises()));
+        } else {
+            existing.setDocument(null);
+
+            // Recreate exercises; merge copies into these lists, so they must be mutable
+            List<WorkoutExercise> exercises = dto.getExercises().stream()
+                    .map(exDto -> {
+                        WorkoutExercise exercise = WorkoutExercise.builder()
+                                .name(exDto.getName())
+                                .workout(existing)
+                                .build();
+
+                        List<ExerciseSet> sets = exDto.getSets().stream()
+                                .map(setDto -> ExerciseSet.builder()
+                                        .reps(setDto.getReps())
+                                        .weightLbs(setDto.getWeightLbs())
+                                        .workoutExercise(exercise)
+                                        .build())
+                                .collect(Collectors.toCollection(ArrayList::new));
+
+                        exercise.setSets(sets);
+                        return exercise;
+                    })
+                    .collect(Collectors.toCollection(ArrayList::new));
+
+            existing.setExercises(exercises);
+        }
 
         Workout saved = workoutRepository.save(existing);
+
+        // Cached feedback describes the old workout, recompute it in the background
+        analysisRepository.deleteByWorkoutIds(List.of(id));
+        analysisJobRepository.enqueue(id);
+        recentHistory.saved(owner.getId(), saved);
         return WorkoutMapper.toDto(saved);
     }
 }
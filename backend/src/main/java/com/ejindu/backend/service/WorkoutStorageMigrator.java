@@ -0,0 +1,118 @@
+package com.ejindu.backend.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ejindu.backend.enums.WorkoutStorage;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves existing workouts to the storage mode in workout.storage. DOCUMENT
+ * folds each workout's exercise and set rows into workout.document and
+ * deletes the rows; RELATIONAL expands the documents back into rows. Runs
+ * in chunks, each in its own transaction, and claims chunks with SKIP
+ * LOCKED so several nodes starting together share the work. Workouts
+ * already in the target mode are left alone, so the job is safe to rerun.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "workout.migrate-storage-on-start", havingValue = "true")
+public class WorkoutStorageMigrator {
+
+    private static final String TO_DOCUMENT = """
+            UPDATE workout w SET document = coalesce((
+                SELECT jsonb_agg(jsonb_build_object(
+                           'id', e.id,
+                           'name', e.name,
+                           'sets', coalesce((
+                               SELECT jsonb_agg(jsonb_build_object('id', s.id, 'reps', s.reps, 'weightLbs', s.weight_lbs))
+                               FROM   exercise_set s
+                               WHERE  s.workout_exercise_id = e.id), '[]'::jsonb)))
+                FROM   workout_exercise e
+                WHERE  e.workout_id = w.id), '[]'::jsonb)
+            WHERE  w.id IN (:ids)""";
+
+    private static final String EXPAND_EXERCISES = """
+            INSERT INTO workout_exercise (id, name, workout_id)
+            SELECT (e->>'id')::uuid, e->>'name', w.id
+            FROM   workout w, jsonb_array_elements(w.document) e
+            WHERE  w.id IN (:ids)""";
+
+    private static final String EXPAND_SETS = """
+            INSERT INTO exercise_set (id, reps, weight_lbs, workout_exercise_id)
+            SELECT (s->>'id')::uuid, (s->>'reps')::int, (s->>'weightLbs')::int, (e->>'id')::uuid
+            FROM   workout w, jsonb_array_elements(w.document) e, jsonb_array_elements(e->'sets') s
+            WHERE  w.id IN (:ids)""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${workout.storage:RELATIONAL}")
+    private WorkoutStorage storage;
+
+    @Value("${workout.migrate-storage-chunk-size:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        long moved = 0;
+        List<UUID> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<UUID> ids = claim();
+                if (!ids.isEmpty()) {
+                    convert(ids);
+                }
+                return ids;
+            });
+            moved += chunk == null ? 0 : chunk.size();
+        } while (chunk != null && chunk.size() == chunkSize);
+
+        if (storage == WorkoutStorage.DOCUMENT) {
+            // Containment lookups such as document @> '[{"name": "Squat"}]'
+            jdbcTemplate.getJdbcTemplate().execute(
+                    "CREATE INDEX IF NOT EXISTS workout_document_gin ON workout USING GIN (document jsonb_path_ops)");
+        }
+
+        // Cached entities and collections still describe the old layout
+        entityManagerFactory.getCache().evictAll();
+        log.info("Moved {} workouts to {} storage", moved, storage);
+    }
+
+    private List<UUID> claim() {
+        String pending = storage == WorkoutStorage.DOCUMENT ? "document IS NULL" : "document IS NOT NULL";
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM workout WHERE " + pending + " LIMIT :limit FOR UPDATE SKIP LOCKED",
+                Map.of("limit", chunkSize), UUID.class);
+    }
+
+    private void convert(List<UUID> ids) {
+        Map<String, Object> params = Map.of("ids", ids);
+        if (storage == WorkoutStorage.DOCUMENT) {
+            jdbcTemplate.update(TO_DOCUMENT, params);
+            jdbcTemplate.update("""
+                    DELETE FROM exercise_set
+                    WHERE  workout_exercise_id IN (SELECT id FROM workout_exercise WHERE workout_id IN (:ids))""",
+                    params);
+            jdbcTemplate.update("DELETE FROM workout_exercise WHERE workout_id IN (:ids)", params);
+        } else {
+            jdbcTemplate.update(EXPAND_EXERCISES, params);
+            jdbcTemplate.update(EXPAND_SETS, params);
+            jdbcTemplate.update("UPDATE workout SET document = NULL WHERE id IN (:ids)", params);
+        }
+    }
+}
@@ -1,13 +1,37 @@
 package com.ejindu.backend;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import jakarta.persistence.EntityManagerFactory;
 
 @SpringBootTest
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
 class BackendApplicationTests {
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// missing_cache_strategy=fail means every @Cache region must be declared in application.conf
+	@Test
+	void secondLevelCacheRegionsAreDeclared() {
+		CacheImplementor cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+		assertThat(cache.getCacheRegionNames()).contains("user", "workout", "workout-exercises", "exercise",
+				"exercise-sets", "exercise-set");
+	}
+
 }
@@ -0,0 +1,106 @@
+package com.ejindu.backend.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ejindu.backend.TestcontainersConfiguration;
+import com.ejindu.backend.auth.RefreshTokenService.Rotation;
+import com.ejindu.backend.entity.RefreshToken;
+import com.ejindu.backend.repository.RefreshTokenRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Rotation relies on the conditional UPDATE in markUsed, so this runs against Postgres
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private RefreshTokenRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(repository, registry, Duration.ofDays(30));
+        // Logins by other test classes leave tokens behind; this test's transaction rolls back anyway
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void rotationReturnsANewTokenFromTheSameFamily() {
+        String first = service.issue(7);
+        nextRequest();
+        UUID family = repository.findAll().get(0).getFamilyId();
+
+        Rotation rotation = service.rotate(first).orElseThrow();
+        nextRequest();
+
+        assertThat(rotation.userId()).isEqualTo(7);
+        assertThat(rotation.token()).isNotEqualTo(first);
+        assertThat(repository.findAll()).extracting(RefreshToken::getFamilyId).containsExactly(family, family);
+        assertThat(service.rotate(rotation.token())).isPresent();
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        String stolen = service.issue(7);
+        String other = service.issue(8);
+        nextRequest();
+        String current = service.rotate(stolen).orElseThrow().token();
+        nextRequest();
+
+        assertThat(service.rotate(stolen)).isEmpty();
+        nextRequest();
+
+        // The legitimate holder's newer token is gone too; other families are untouched
+        assertThat(service.rotate(current)).isEmpty();
+        assertThat(service.rotate(other)).isPresent();
+        assertThat(registry.counter("auth.refresh.reuse").count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutCountingAsReuse() {
+        String expired = service.issue(7);
+        repository.findAll().forEach(t -> t.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+        nextRequest();
+
+        assertThat(service.rotate(expired)).isEmpty();
+        nextRequest();
+
+        assertThat(repository.findAll()).singleElement()
+                .extracting(RefreshToken::getUsedAt).isNull();
+        assertThat(registry.counter("auth.refresh.reuse").count()).isZero();
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThat(service.rotate("not-a-token")).isEmpty();
+    }
+
+    // Each call is its own transaction in the app; flush and forget what this one loaded
+    private void nextRequest() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
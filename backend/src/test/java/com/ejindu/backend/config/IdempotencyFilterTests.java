@@ -0,0 +1,217 @@
+package com.ejindu.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.enums.Role;
+import com.ejindu.backend.service.IdempotencyStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+class IdempotencyFilterTests {
+
+    private static final String WORKOUT = "{\"name\":\"Legs\"}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryStore store = new InMemoryStore();
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, registry, true,
+            List.of("/api/workout"), 5000, 10);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void signIn() {
+        signInAs(1);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retryGetsTheStoredResponseWithoutRunningAgain() throws Exception {
+        MockHttpServletResponse first = send("key-1", WORKOUT, created());
+        MockHttpServletResponse retry = send("key-1", WORKOUT, created());
+
+        assertThat(calls).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader("Idempotency-Replayed")).isEqualTo("true");
+        assertThat(first.getHeader("Idempotency-Replayed")).isNull();
+    }
+
+    @Test
+    void sameKeyWithADifferentBodyIsRejected() throws Exception {
+        send("key-1", WORKOUT, created());
+        MockHttpServletResponse other = send("key-1", "{\"name\":\"Arms\"}", created());
+
+        assertThat(other.getStatus()).isEqualTo(422);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void sameKeyAskingForAnotherFormatIsRejected() throws Exception {
+        send("key-1", WORKOUT, created());
+        MockHttpServletResponse cbor = send("key-1", WORKOUT, "application/cbor", created());
+
+        assertThat(cbor.getStatus()).isEqualTo(422);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedToTheUser() throws Exception {
+        send("key-1", WORKOUT, created());
+        signInAs(2);
+        MockHttpServletResponse response = send("key-1", WORKOUT, created());
+
+        assertThat(response.getHeader("Idempotency-Replayed")).isNull();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstAndReplaysIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                finish.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = pool.submit(() -> sendAs(1, "key-1", WORKOUT, slow));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MockHttpServletResponse> duplicate = pool.submit(() -> sendAs(1, "key-1", WORKOUT, created()));
+
+            Thread.sleep(200);
+            assertThat(duplicate).isNotDone();
+            finish.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+            MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+            assertThat(replayed.getStatus()).isEqualTo(201);
+            assertThat(replayed.getHeader("Idempotency-Replayed")).isEqualTo("true");
+            assertThat(calls).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedRequestReleasesItsKeyForTheRetry() throws Exception {
+        MockHttpServletResponse failed = send("key-1", WORKOUT, (request, response) -> {
+            calls.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            ((HttpServletResponse) response).setStatus(500);
+        });
+        MockHttpServletResponse retry = send("key-1", WORKOUT, created());
+
+        assertThat(failed.getStatus()).isEqualTo(500);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader("Idempotency-Replayed")).isNull();
+        assertThat(calls).hasValue(2);
+    }
+
+    // Stands in for the controller: reads the body and answers 201 with the call number
+    private FilterChain created() {
+        return (request, response) -> {
+            int call = calls.incrementAndGet();
+            request.getInputStream().readAllBytes();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"id\":" + call + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse sendAs(int userId, String key, String body, FilterChain chain)
+            throws Exception {
+        signInAs(userId);
+        try {
+            return send(key, body, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        return send(key, body, "application/json", chain);
+    }
+
+    private MockHttpServletResponse send(String key, String body, String accept, FilterChain chain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/workout");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.addHeader("Accept", accept);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void signInAs(int id) {
+        User user = User.builder().id(id).email("user" + id + "@example.com").role(Role.USER).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    // The idempotency_key rules in a map: one claim per key, failures forgotten, successes kept
+    private static final class InMemoryStore extends IdempotencyStore {
+
+        private final Map<String, Stored> rows = new ConcurrentHashMap<>();
+
+        InMemoryStore() {
+            super(null, Duration.ofHours(24), Duration.ofMinutes(1), 1000);
+        }
+
+        @Override
+        public boolean claim(Integer userId, String key) {
+            return rows.putIfAbsent(userId + ":" + key, new Stored(null, null, null, null)) == null;
+        }
+
+        @Override
+        public Optional<Stored> find(Integer userId, String key) {
+            return Optional.ofNullable(rows.get(userId + ":" + key));
+        }
+
+        @Override
+        public void complete(Integer userId, String key, String requestHash, int status, String contentType,
+                byte[] body) {
+            rows.put(userId + ":" + key, new Stored(requestHash, status, contentType, body));
+        }
+
+        @Override
+        public void release(Integer userId, String key) {
+            rows.computeIfPresent(userId + ":" + key, (k, stored) -> stored.complete() ? stored : null);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ejindu.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.enums.Role;
+import com.ejindu.backend.service.InMemoryRateLimitBackend;
+import com.ejindu.backend.service.RateLimitBackend.Limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryRateLimitBackend backend = new InMemoryRateLimitBackend(registry, 10);
+
+    @BeforeEach
+    void signIn() {
+        signInAs(1);
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userBucketRejectsBeforeTheGlobalOne() throws Exception {
+        RateLimitFilter filter = filter(2, 100);
+
+        assertThat(analyse(filter)).isEqualTo(200);
+        assertThat(analyse(filter)).isEqualTo(200);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(analysisRequest(), rejected, new MockFilterChain());
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+    }
+
+    @Test
+    void globalRejectionDoesNotCostTheUserAToken() throws Exception {
+        RateLimitFilter filter = filter(1, 1);
+        signInAs(2);
+        assertThat(analyse(filter)).isEqualTo(200);
+
+        // The global bucket is now empty, so user 1 is turned away without using its only token
+        signInAs(1);
+        assertThat(analyse(filter)).isEqualTo(429);
+        assertThat(backend.tryConsume("ANALYSIS:user:1", new Limit(1, 0)))
+                .isZero();
+    }
+
+    @Test
+    void readsAreNotLimited() throws Exception {
+        RateLimitFilter filter = filter(1, 1);
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/workout"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    private RateLimitFilter filter(long userCapacity, long globalCapacity) {
+        return new RateLimitFilter(backend, registry, true, userCapacity, 0, globalCapacity, 0, 30, 30, 1000, 1000);
+    }
+
+    private int analyse(RateLimitFilter filter) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(analysisRequest(), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest analysisRequest() {
+        return new MockHttpServletRequest("POST", "/api/gemini/workout/1");
+    }
+
+    private static void signInAs(int id) {
+        User user = User.builder().id(id).email("user" + id + "@example.com").role(Role.USER).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,178 @@
+package com.ejindu.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs against a primary and a streaming replica, set up like
+ * docker-compose.replicas.yml. Anything written on the replica fails, so a
+ * write that follows reads in the same request shows where it was routed.
+ */
+@SpringBootTest(properties = {
+        "analysis.provider.mode=RULES",
+        "datasource.replicas.stickiness-ms=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class ReadWriteRoutingTests {
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    static final GenericContainer<?> PRIMARY = new GenericContainer<>("bitnami/postgresql:16")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "master")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "replicator")
+            .withEnv("POSTGRESQL_USERNAME", "fitlog")
+            .withEnv("POSTGRESQL_PASSWORD", "fitlog")
+            .withEnv("POSTGRESQL_DATABASE", "fitlog")
+            .withExposedPorts(5432);
+
+    @Container
+    static final GenericContainer<?> REPLICA = new GenericContainer<>("bitnami/postgresql:16")
+            .withNetwork(NETWORK)
+            .dependsOn(PRIMARY)
+            .withEnv("POSTGRESQL_REPLICATION_MODE", "slave")
+            .withEnv("POSTGRESQL_REPLICATION_USER", "replicator")
+            .withEnv("POSTGRESQL_REPLICATION_PASSWORD", "replicator")
+            .withEnv("POSTGRESQL_MASTER_HOST", "primary")
+            .withEnv("POSTGRESQL_MASTER_PORT_NUMBER", "5432")
+            .withEnv("POSTGRESQL_PASSWORD", "fitlog")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*started streaming WAL.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> url(PRIMARY));
+        registry.add("spring.datasource.username", () -> "fitlog");
+        registry.add("spring.datasource.password", () -> "fitlog");
+        registry.add("datasource.replicas.urls", () -> url(REPLICA));
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        Boolean onReplica = readOnly.execute(status -> inRecovery());
+        Boolean onPrimary = readWrite.execute(status -> inRecovery());
+
+        assertThat(onReplica).isTrue();
+        assertThat(onPrimary).isFalse();
+    }
+
+    @Test
+    void writeAfterReadsInOneRequestGoesToThePrimary() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        String token = register(email);
+        // Authentication looks the user up read-only as well
+        awaitOnReplica("SELECT count(*) FROM _user WHERE email = ?", email);
+        UUID id = createWorkout(token);
+        awaitOnReplica("SELECT count(*) FROM exercise_set s JOIN workout_exercise e "
+                + "ON e.id = s.workout_exercise_id WHERE e.workout_id = ?", id);
+
+        // Looks the workout up read-only, then stores the analysis
+        mockMvc.perform(post("/api/gemini/workout/" + id).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM workout_analysis WHERE workout_id = ?", Long.class, id)).isEqualTo(1);
+    }
+
+    private Boolean inRecovery() {
+        return jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class);
+    }
+
+    private String register(String email) throws Exception {
+        String body = """
+                {"firstName":"Routing","lastName":"Test","email":"%s","password":"secret123"}
+                """.formatted(email);
+        String response = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).path("token").asText();
+    }
+
+    private UUID createWorkout(String token) throws Exception {
+        String body = """
+                {"name":"Legs","date":"%s","exercises":[
+                  {"name":"Squat","sets":[{"reps":5,"weightLbs":225},{"reps":5,"weightLbs":225}]}
+                ]}
+                """.formatted(LocalDate.now());
+        String response = mockMvc.perform(post("/api/workout").header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).path("id").asText());
+    }
+
+    // Replication is asynchronous; wait until the replica has the row before reading it there
+    private static void awaitOnReplica(String countQuery, Object param) throws SQLException, InterruptedException {
+        try (Connection c = DriverManager.getConnection(url(REPLICA), "fitlog", "fitlog");
+                PreparedStatement st = c.prepareStatement(countQuery)) {
+            st.setObject(1, param);
+            for (int i = 0; i < 100; i++) {
+                try (ResultSet rs = st.executeQuery()) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) {
+                        return;
+                    }
+                }
+                Thread.sleep(100);
+            }
+        }
+        throw new AssertionError("Nothing for " + param + " on the replica after 10 s");
+    }
+
+    private static String url(GenericContainer<?> container) {
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(5432) + "/fitlog";
+    }
+}
@@ -0,0 +1,108 @@
+package com.ejindu.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.enums.Role;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReplicaSetTests {
+
+    // Never connected: these tests only look at which pool a read is routed to
+    private final HikariDataSource replica = replica();
+    private final ReplicaSet replicas = replicaSet();
+    private final OncePerRequestFilter filter = new ReadWriteRoutingConfig().readYourWritesFilter(replicas);
+
+    @AfterEach
+    void tearDown() {
+        replicas.unpin();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void recentWriterOnThisNodeReadsFromThePrimary() {
+        assertThat(replicas.pick(1)).isSameAs(replica);
+
+        replicas.markWrite(1);
+
+        assertThat(replicas.pick(1)).isNull();
+        assertThat(replicas.pick(2)).isSameAs(replica);
+    }
+
+    @Test
+    void onlyAFutureHeaderPinsReadsToThePrimary() {
+        replicas.pin(String.valueOf(System.currentTimeMillis() - 1000));
+        assertThat(replicas.pick(1)).isSameAs(replica);
+        replicas.pin("soon");
+        assertThat(replicas.pick(1)).isSameAs(replica);
+
+        replicas.pin(String.valueOf(System.currentTimeMillis() + 5000));
+        assertThat(replicas.pick(1)).isNull();
+        replicas.unpin();
+        assertThat(replicas.pick(1)).isSameAs(replica);
+    }
+
+    @Test
+    void writeHandsTheClientAHeaderThatAnotherNodeHonours() throws Exception {
+        signInAs(1);
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/workout"), written, (request, response) -> {
+        });
+        String until = written.getHeader(ReplicaSet.HEADER);
+        assertThat(Long.parseLong(until)).isGreaterThan(System.currentTimeMillis());
+
+        // A fresh node has never seen this user write
+        ReplicaSet other = replicaSet();
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/workout");
+        read.addHeader(ReplicaSet.HEADER, until);
+        AtomicReference<DataSource> picked = new AtomicReference<>(replica);
+        new ReadWriteRoutingConfig().readYourWritesFilter(other).doFilter(read, new MockHttpServletResponse(),
+                (request, response) -> picked.set(other.pick(1)));
+
+        assertThat(picked.get()).isNull();
+        assertThat(other.pick(1)).isSameAs(replica);
+    }
+
+    @Test
+    void readsDoNotGetTheHeader() throws Exception {
+        signInAs(1);
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/workout"), read, (request, response) -> {
+        });
+
+        assertThat(read.getHeader(ReplicaSet.HEADER)).isNull();
+    }
+
+    private ReplicaSet replicaSet() {
+        return new ReplicaSet(List.of(replica), Duration.ofSeconds(2), Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+    }
+
+    private static HikariDataSource replica() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("replica-0");
+        return pool;
+    }
+
+    private static void signInAs(int id) {
+        User user = User.builder().id(id).email("user" + id + "@example.com").role(Role.USER).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.ejindu.backend.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+
+import com.ejindu.backend.config.SqlStats.SqlBudgetExceededException;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+class SqlBudgetAdviceTests {
+
+    private final SqlStats stats = new SqlStats(Long.MAX_VALUE, true);
+    private final SqlBudgetAdvice advice = new SqlBudgetAdvice(64, true);
+    private SqlStats.Request request;
+
+    @BeforeEach
+    void begin() {
+        request = SqlStats.begin();
+    }
+
+    @AfterEach
+    void end() {
+        SqlStats.end();
+    }
+
+    @Test
+    void fixedBudgetFailsAtTheFirstStatementOverIt() {
+        request.setBudget(2, 0);
+        run(2);
+
+        assertThatThrownBy(() -> run(1)).isInstanceOf(SqlBudgetExceededException.class);
+    }
+
+    @Test
+    void scaledBudgetWaitsForTheResult() {
+        request.setBudget(2, 3);
+        run(8);
+
+        assertThat(advice.supports(returnType("list"), MappingJackson2HttpMessageConverter.class)).isTrue();
+        assertThatThrownBy(() -> write(Collections.nCopies(64, "w")))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("over its SQL budget of 5");
+    }
+
+    @Test
+    void scaledBudgetGrowsPerBatchOfItems() {
+        request.setBudget(2, 3);
+        run(8);
+
+        Object body = new MappingJacksonValue(Collections.nCopies(65, "w"));
+        assertThat(write(body)).isSameAs(body);
+        assertThat(request.getAllowed()).isEqualTo(8);
+        assertThat(request.isExceeded()).isFalse();
+    }
+
+    @Test
+    void fixedBudgetEndpointsAreLeftToTheListener() {
+        assertThat(advice.supports(returnType("single"), MappingJackson2HttpMessageConverter.class)).isFalse();
+        assertThat(advice.supports(returnType("unbudgeted"), MappingJackson2HttpMessageConverter.class)).isFalse();
+    }
+
+    private void run(int statements) {
+        for (int i = 0; i < statements; i++) {
+            QueryInfo query = new QueryInfo("select 1");
+            stats.afterQuery(new ExecutionInfo(), List.of(query));
+        }
+    }
+
+    private Object write(Object body) {
+        return advice.beforeBodyWrite(body, returnType("list"), MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, mock(ServerHttpRequest.class),
+                mock(ServerHttpResponse.class));
+    }
+
+    private static MethodParameter returnType(String method) {
+        try {
+            return new MethodParameter(Endpoints.class.getDeclaredMethod(method), -1);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Endpoints {
+
+        @SqlBudget(value = 2, perBatch = 3)
+        List<String> list() {
+            return List.of();
+        }
+
+        @SqlBudget(2)
+        String single() {
+            return "";
+        }
+
+        String unbudgeted() {
+            return "";
+        }
+    }
+}
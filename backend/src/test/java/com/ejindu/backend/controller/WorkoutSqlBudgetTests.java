@@ -0,0 +1,192 @@
+package com.ejindu.backend.controller;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ejindu.backend.TestcontainersConfiguration;
+import com.ejindu.backend.config.SqlBudget;
+import com.ejindu.backend.config.SqlStats.SqlBudgetExceededException;
+import com.ejindu.backend.dto.WorkoutDto;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.mapper.WorkoutMapper;
+import com.ejindu.backend.repository.UserRepository;
+import com.ejindu.backend.repository.WorkoutRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Calls every @SqlBudget endpoint with enforcement on, so a change that adds
+ * statements to one of them (an N+1, a lost fetch join) fails here.
+ */
+@SpringBootTest(properties = "sql.budget.enforce=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({ TestcontainersConfiguration.class, WorkoutSqlBudgetTests.OverBudgetController.class })
+@Testcontainers(disabledWithoutDocker = true)
+class WorkoutSqlBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkoutRepository workoutRepository;
+
+    private String email;
+    private String token;
+
+    @BeforeEach
+    void register() throws Exception {
+        email = UUID.randomUUID() + "@example.com";
+        String body = """
+                {"firstName":"Budget","lastName":"Test","email":"%s","password":"secret123"}
+                """.formatted(email);
+        String response = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        token = objectMapper.readTree(response).path("token").asText();
+    }
+
+    @Test
+    void workoutEndpointsStayWithinTheirBudgets() throws Exception {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5; i++) {
+            create(today.minusDays(i));
+        }
+        UUID id = create(today);
+
+        mockMvc.perform(authed(get("/api/workout")
+                        .param("from", today.minusDays(30).toString()).param("to", today.toString())))
+                .andExpect(status().isOk());
+        mockMvc.perform(authed(get("/api/workout").param("depth", "1")
+                        .param("from", today.minusDays(30).toString()).param("to", today.toString())))
+                .andExpect(status().isOk());
+        mockMvc.perform(authed(get("/api/workout/exercise").param("name", "Squat")))
+                .andExpect(status().isOk());
+        mockMvc.perform(authed(get("/api/workout/" + id)))
+                .andExpect(status().isOk());
+        mockMvc.perform(authed(get("/api/workout/calendar").param("month", YearMonth.from(today).toString())))
+                .andExpect(status().isOk());
+        mockMvc.perform(authed(put("/api/workout/" + id)
+                        .contentType(MediaType.APPLICATION_JSON).content(workout(today))))
+                .andExpect(status().isOk());
+        mockMvc.perform(authed(get("/api/workout/" + id)))
+                .andExpect(jsonPath("$.exercises.length()").value(3));
+        mockMvc.perform(authed(delete("/api/workout/" + id)))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    @Test
+    void listBudgetsGrowWithTheResult() throws Exception {
+        // Seeded directly: posting this many would trip the rate limiter. The oldest fall
+        // outside the recent-history window, so the database path is exercised as well.
+        LocalDate today = LocalDate.now();
+        User user = userRepository.findByEmail(email).orElseThrow();
+        List<Workout> workouts = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            WorkoutDto dto = objectMapper.readValue(workout(today.minusDays(i)), WorkoutDto.class);
+            workouts.add(WorkoutMapper.toEntity(dto, user));
+        }
+        workoutRepository.saveAll(workouts);
+
+        // A cold second-level cache is the worst case for batch fetching
+        for (LocalDate from : List.of(today.minusDays(30), today.minusDays(149))) {
+            for (String depth : List.of("0", "1", "2")) {
+                sessionFactory.getCache().evictAllRegions();
+                mockMvc.perform(authed(get("/api/workout").param("depth", depth)
+                                .param("from", from.toString()).param("to", today.toString())))
+                        .andExpect(status().isOk());
+            }
+        }
+        for (String depth : List.of("0", "1", "2")) {
+            sessionFactory.getCache().evictAllRegions();
+            mockMvc.perform(authed(get("/api/workout/exercise")
+                            .param("name", "Squat").param("limit", "100").param("depth", depth)))
+                    .andExpect(jsonPath("$.length()").value(100));
+        }
+    }
+
+    @Test
+    void goingOverBudgetFailsTheRequest() {
+        assertThatThrownBy(() -> mockMvc.perform(authed(get("/api/test/over-budget"))))
+                .hasRootCauseInstanceOf(SqlBudgetExceededException.class);
+    }
+
+    private UUID create(LocalDate date) throws Exception {
+        String response = mockMvc.perform(authed(post("/api/workout")
+                        .contentType(MediaType.APPLICATION_JSON).content(workout(date))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(response).path("id").asText());
+    }
+
+    private MockHttpServletRequestBuilder authed(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private static String workout(LocalDate date) {
+        return """
+                {"name":"Legs","date":"%s","exercises":[
+                  {"name":"Squat","sets":[{"reps":5,"weightLbs":225},{"reps":5,"weightLbs":225}]},
+                  {"name":"Lunge","sets":[{"reps":10,"weightLbs":50}]},
+                  {"name":"Calf raise","sets":[{"reps":15,"weightLbs":90},{"reps":15,"weightLbs":90}]}
+                ]}
+                """.formatted(date);
+    }
+
+    // Runs one statement per workout, the N+1 shape the budgets are meant to catch
+    @RestController
+    static class OverBudgetController {
+
+        private final WorkoutRepository workoutRepository;
+
+        OverBudgetController(WorkoutRepository workoutRepository) {
+            this.workoutRepository = workoutRepository;
+        }
+
+        @GetMapping("/api/test/over-budget")
+        @SqlBudget(2)
+        long overBudget() {
+            long total = 0;
+            for (int i = 0; i < 3; i++) {
+                total += workoutRepository.count();
+            }
+            return total;
+        }
+    }
+}
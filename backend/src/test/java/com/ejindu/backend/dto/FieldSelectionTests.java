@@ -0,0 +1,88 @@
+package com.ejindu.backend.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class FieldSelectionTests {
+
+    @Test
+    void withoutFieldsEverythingDownToTheDepthIsReturned() {
+        FieldSelection all = FieldSelection.parse(null, null);
+        assertThat(all.depth()).isEqualTo(FieldSelection.FULL_DEPTH);
+        assertThat(all.workout()).isEmpty();
+        assertThat(all.exercise()).isEmpty();
+        assertThat(all.set()).isEmpty();
+
+        assertThat(FieldSelection.parse(" ", 1).depth()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "name,date                     | 0",
+            "name,exercises.name           | 1",
+            "exercises.sets.reps           | 2",
+            "exercises.sets                | 2",
+            "exercises                     | 2",
+            "id, exercises.name ,notes     | 1"
+    })
+    void depthIsInferredFromTheDeepestField(String fields, int depth) {
+        assertThat(FieldSelection.parse(fields, null).depth()).isEqualTo(depth);
+    }
+
+    @Test
+    void explicitDepthCapsButNeverExceedsTheFields() {
+        assertThat(FieldSelection.parse("exercises.sets.reps", 1).depth()).isEqualTo(1);
+        assertThat(FieldSelection.parse("name", 2).depth()).isZero();
+    }
+
+    @Test
+    void fieldsAreSplitPerLevel() {
+        FieldSelection selection = FieldSelection.parse("name,exercises.name,exercises.sets.reps", null);
+
+        assertThat(selection.workout()).containsExactlyInAnyOrder("name", "exercises");
+        assertThat(selection.exercise()).containsExactlyInAnyOrder("name", "sets");
+        assertThat(selection.set()).containsExactly("reps");
+    }
+
+    @Test
+    void namingACollectionSelectsEverythingUnderIt() {
+        FieldSelection exercises = FieldSelection.parse("exercises,exercises.name", null);
+        assertThat(exercises.exercise()).isEmpty();
+        assertThat(exercises.set()).isEmpty();
+
+        FieldSelection sets = FieldSelection.parse("exercises.sets,exercises.sets.reps", null);
+        assertThat(sets.exercise()).containsExactly("sets");
+        assertThat(sets.set()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "weight",
+            "name,,date",
+            "name.first",
+            "exercises.reps",
+            "exercises.name.reps",
+            "exercises.sets.weight",
+            "exercises.sets.reps.value"
+    })
+    void unknownFieldsAreBadRequests(String fields) {
+        assertThatThrownBy(() -> FieldSelection.parse(fields, null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { -1, 3 })
+    void depthOutsideTheLevelsIsABadRequest(int depth) {
+        assertThatThrownBy(() -> FieldSelection.parse(null, depth))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,49 @@
+package com.ejindu.backend.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ejindu.backend.dto.ExerciseSetDto;
+import com.ejindu.backend.dto.WorkoutDto;
+import com.ejindu.backend.dto.WorkoutExerciseDto;
+
+class WorkoutMapperTests {
+
+    private final WorkoutDto full = WorkoutDto.builder()
+            .id(UUID.randomUUID())
+            .name("Legs")
+            .date(LocalDate.of(2025, 6, 30))
+            .exercises(List.of(WorkoutExerciseDto.builder()
+                    .id(UUID.randomUUID())
+                    .name("Squat")
+                    .sets(List.of(ExerciseSetDto.builder().id(UUID.randomUUID()).reps(5).weightLbs(225).build()))
+                    .build()))
+            .build();
+
+    @Test
+    void mappedWorkoutIsCutDownToTheRequestedDepth() {
+        assertThat(WorkoutMapper.toDto(full, 0).getExercises()).isNull();
+
+        WorkoutDto exercises = WorkoutMapper.toDto(full, 1);
+        assertThat(exercises.getExercises()).singleElement()
+                .satisfies(ex -> assertThat(ex.getName()).isEqualTo("Squat"))
+                .satisfies(ex -> assertThat(ex.getSets()).isNull());
+
+        assertThat(WorkoutMapper.toDto(full, 2)).isEqualTo(full);
+    }
+
+    @Test
+    void originalIsLeftUntouched() {
+        WorkoutDto copy = WorkoutMapper.toDto(full, 2);
+        copy.getExercises().get(0).getSets().get(0).setReps(1);
+        copy.setName("Arms");
+
+        assertThat(full.getName()).isEqualTo("Legs");
+        assertThat(full.getExercises().get(0).getSets().get(0).getReps()).isEqualTo(5);
+    }
+}
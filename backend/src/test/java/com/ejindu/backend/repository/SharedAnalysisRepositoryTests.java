@@ -0,0 +1,52 @@
+package com.ejindu.backend.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ejindu.backend.TestcontainersConfiguration;
+import com.ejindu.backend.entity.SharedAnalysis;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class SharedAnalysisRepositoryTests {
+
+    @Autowired
+    private SharedAnalysisRepository repository;
+
+    @Test
+    void upsertReplacesAnExpiredRowAndRestartsItsTtl() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.upsert("a".repeat(64), "stale", now.minusDays(40));
+        assertThat(repository.findByFingerprintAndCreatedAtAfter("a".repeat(64), now.minusDays(30))).isEmpty();
+
+        repository.upsert("a".repeat(64), "fresh", now);
+
+        SharedAnalysis stored = repository.findByFingerprintAndCreatedAtAfter("a".repeat(64), now.minusDays(30))
+                .orElseThrow();
+        assertThat(stored.getAnalysis()).isEqualTo("fresh");
+        assertThat(stored.getCreatedAt()).isNotNull();
+        assertThat(repository.deleteOlderThan(now.minusDays(30))).isZero();
+    }
+
+    @Test
+    void concurrentStoresOfTheSameFingerprintBothSucceed() {
+        LocalDateTime now = LocalDateTime.now();
+        repository.upsert("b".repeat(64), "first node", now);
+        repository.upsert("b".repeat(64), "second node", now);
+
+        assertThat(repository.findById("b".repeat(64))).get()
+                .extracting(SharedAnalysis::getAnalysis).isEqualTo("second node");
+    }
+}
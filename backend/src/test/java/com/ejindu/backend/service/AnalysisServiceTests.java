@@ -0,0 +1,76 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.enums.AnalysisMode;
+import com.ejindu.backend.repository.PeriodAnalysisRepository;
+import com.ejindu.backend.repository.WorkoutAnalysisRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class AnalysisServiceTests {
+
+    private final GeminiService gemini = mock(GeminiService.class);
+    private final RuleBasedAnalysisProvider rules = mock(RuleBasedAnalysisProvider.class);
+    private final SharedAnalysisCache sharedCache = mock(SharedAnalysisCache.class);
+    private final GeminiUsageService usage = mock(GeminiUsageService.class);
+    private final WorkoutAnalysisRepository analysisRepository = mock(WorkoutAnalysisRepository.class);
+    private final Workout workout = Workout.builder()
+            .user(User.builder().id(1).build())
+            .date(LocalDate.of(2026, 3, 2))
+            .build();
+    private AnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AnalysisService(gemini, rules, sharedCache, usage, new SimpleMeterRegistry(),
+                analysisRepository, mock(PeriodAnalysisRepository.class));
+        ReflectionTestUtils.setField(service, "mode", AnalysisMode.LLM);
+        ReflectionTestUtils.setField(service, "fallbackToRules", true);
+
+        when(analysisRepository.findByWorkout(workout)).thenReturn(Optional.empty());
+        when(usage.withinQuota(1)).thenReturn(true);
+        when(gemini.analyseWorkout(eq(workout), any())).thenReturn(Mono.error(new IllegalStateException("Gemini down")));
+        when(sharedCache.lookupOrCompute(eq(workout), any(), any())).thenAnswer(call -> call.getArgument(2));
+        when(rules.analyseWorkout(eq(workout), any())).thenReturn(Mono.just("Rule findings"));
+    }
+
+    @Test
+    void requestsFallBackToRulesWithoutStoringThem() {
+        assertThat(service.analyseSingle(workout, null).block()).isEqualTo("Rule findings");
+        verify(analysisRepository, never()).save(any());
+    }
+
+    @Test
+    void precomputeFailsInsteadOfFallingBack() {
+        // The worker relies on this error to retry the job later
+        assertThatThrownBy(() -> service.precomputeSingle(workout, null).block())
+                .hasMessageContaining("Gemini down");
+        verify(analysisRepository, never()).save(any());
+    }
+
+    @Test
+    void precomputeStoresTheLlmAnalysis() {
+        when(gemini.analyseWorkout(eq(workout), any())).thenReturn(Mono.just("LLM feedback"));
+
+        assertThat(service.precomputeSingle(workout, null).block()).isEqualTo("LLM feedback");
+        verify(analysisRepository).save(any());
+    }
+}
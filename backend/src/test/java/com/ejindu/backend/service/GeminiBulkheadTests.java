@@ -0,0 +1,112 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class GeminiBulkheadTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeminiBulkhead bulkhead = new GeminiBulkhead(1, 1, Duration.ofSeconds(5), registry);
+
+    @Test
+    void permitIsReturnedWhenTheCallEnds() {
+        assertThat(bulkhead.wrap(Mono.just("ok")).block()).isEqualTo("ok");
+        assertThatThrownBy(() -> bulkhead.wrap(Mono.error(new IllegalStateException())).block())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(bulkhead.wrap(Flux.just("a", "b")).collectList().block()).containsExactly("a", "b");
+
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void permitIsFreeByTheTimeTheCallerSeesTheResult() {
+        // e.g. GeminiGuard's next retry, or a caller issuing calls one after another
+        AtomicInteger seen = new AtomicInteger(-1);
+
+        bulkhead.wrap(Mono.just("ok")).doOnNext(v -> seen.set(bulkhead.availablePermits())).block();
+        assertThat(seen).hasValue(1);
+
+        bulkhead.wrap(Mono.error(new IllegalStateException()))
+                .doOnError(e -> seen.set(bulkhead.availablePermits()))
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        assertThat(seen).hasValue(1);
+
+        bulkhead.wrap(Flux.just("a")).doOnComplete(() -> seen.set(bulkhead.availablePermits())).blockLast();
+        assertThat(seen).hasValue(1);
+    }
+
+    @Test
+    void cancellingAQueuedCallDoesNotLeakThePermit() {
+        // e.g. the SSE client disconnects just as the running call hands its permit over
+        for (int i = 0; i < 200; i++) {
+            Sinks.Empty<Void> first = Sinks.empty();
+            bulkhead.wrap(first.asMono()).subscribe();
+            Disposable queued = bulkhead.wrap(Mono.just("late")).subscribe();
+            awaitQueued(1);
+
+            Thread finisher = new Thread(first::tryEmitEmpty);
+            finisher.start();
+            queued.dispose();
+
+            awaitIdle();
+        }
+        assertThat(bulkhead.wrap(Mono.just("next")).block()).isEqualTo("next");
+    }
+
+    @Test
+    void cancellingARunningStreamReturnsItsPermit() {
+        Disposable stream = bulkhead.wrap(Flux.never()).subscribe();
+        assertThat(bulkhead.availablePermits()).isZero();
+
+        stream.dispose();
+
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void callsBeyondTheQueueAreRejected() {
+        Disposable running = bulkhead.wrap(Mono.never()).subscribe();
+        Disposable queued = bulkhead.wrap(Mono.never()).subscribe();
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> bulkhead.wrap(Mono.just("x")).block())
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(registry.counter("gemini.bulkhead.rejected").count()).isEqualTo(1);
+
+        queued.dispose();
+        running.dispose();
+        awaitIdle();
+    }
+
+    private void awaitQueued(int expected) {
+        awaitUntil(() -> registry.get("gemini.bulkhead.queued").gauge().value() == expected);
+    }
+
+    // Nobody waiting and the permit back: a cancelled waiter may still be handing it over otherwise
+    private void awaitIdle() {
+        awaitUntil(() -> registry.get("gemini.bulkhead.queued").gauge().value() == 0
+                && bulkhead.availablePermits() == 1);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
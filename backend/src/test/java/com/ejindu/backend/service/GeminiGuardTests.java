@@ -0,0 +1,156 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class GeminiGuardTests {
+
+    // Per-attempt timeout for tests that aren't about timeouts; a cold WebClient can take seconds on its first call
+    private static final long SLOW = 10_000;
+
+    private HttpServer server;
+    private WebClient client;
+    private SimpleMeterRegistry registry;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    // Maps the 1-based hit number to a status code; a negative code means "sleep that many ms, then 200"
+    private volatile IntFunction<Integer> behaviour = hit -> 200;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            int status = behaviour.apply(hits.incrementAndGet());
+            if (status < 0) {
+                try {
+                    Thread.sleep(-status);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status = 200;
+            }
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        client = WebClient.create("http://localhost:" + server.getAddress().getPort());
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void retriesServerErrorsUntilSuccess() {
+        behaviour = hit -> hit <= 2 ? 503 : 200;
+        GeminiGuard guard = guard(SLOW, 3, 20, 1, 0);
+
+        String body = guard.protect(call()).block();
+
+        assertThat(body).contains("ok");
+        assertThat(hits).hasValue(3);
+        assertThat(registry.counter("gemini.retries").count()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        behaviour = hit -> 400;
+        GeminiGuard guard = guard(SLOW, 3, 20, 1, 0);
+
+        assertThatThrownBy(() -> guard.protect(call()).block())
+                .isInstanceOf(WebClientResponseException.BadRequest.class);
+        assertThat(hits).hasValue(1);
+    }
+
+    @Test
+    void timesOutSlowCalls() {
+        behaviour = hit -> -500;
+        GeminiGuard guard = guard(100, 1, 20, 1, 0);
+
+        assertThatThrownBy(() -> guard.protect(call()).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(registry.timer("gemini.calls", "outcome", "timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitOpensAndFailsFast() {
+        behaviour = hit -> 500;
+        GeminiGuard guard = guard(SLOW, 1, 20, 1, 0);
+
+        for (int i = 0; i < 5; i++) {
+            guard.protect(call()).onErrorResume(e -> Mono.empty()).block();
+        }
+        assertThat(guard.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int before = hits.get();
+        assertThatThrownBy(() -> guard.protect(call()).block())
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(hits).hasValue(before);
+    }
+
+    @Test
+    void bulkheadRejectsWhenQueueIsFull() throws InterruptedException {
+        behaviour = hit -> -400;
+        GeminiGuard guard = guard(2000, 1, 20, 1, 0);
+
+        guard.protect(call()).subscribe();
+        Thread.sleep(100);
+
+        assertThatThrownBy(() -> guard.protect(call()).block())
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(registry.counter("gemini.bulkhead.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void streamsAreTimedToo() {
+        GeminiGuard guard = guard(SLOW, 1, 20, 1, 0);
+
+        assertThat(guard.protect(stream()).collectList().block()).isNotEmpty();
+        assertThat(registry.timer("gemini.calls", "outcome", "success").count()).isEqualTo(1);
+
+        guard.protect(Flux.never()).subscribe().dispose();
+        assertThat(registry.timer("gemini.calls", "outcome", "cancelled").count()).isEqualTo(1);
+    }
+
+    private Flux<String> stream() {
+        return client.post().uri("/stream").retrieve().bodyToFlux(String.class);
+    }
+
+    private Mono<String> call() {
+        return client.post().uri("/generate").retrieve().bodyToMono(String.class);
+    }
+
+    private GeminiGuard guard(long timeoutMs, int attempts, long backoffMs, int maxConcurrent, int maxQueue) {
+        return new GeminiGuard(registry, timeoutMs, attempts, backoffMs,
+                50, 4, 60_000, maxConcurrent, maxQueue, 50);
+    }
+}
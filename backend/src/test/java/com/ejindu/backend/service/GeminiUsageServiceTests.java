@@ -0,0 +1,100 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ejindu.backend.repository.GeminiUsageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GeminiUsageServiceTests {
+
+    private final GeminiUsageRepository repository = mock(GeminiUsageRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    // Stands in for gemini_usage: the tokens the upserts have committed
+    private final AtomicLong stored = new AtomicLong();
+    private final List<Object[]> upserted = new ArrayList<>();
+    private GeminiUsageService usage;
+
+    @BeforeEach
+    void setUp() {
+        usage = new GeminiUsageService(repository, jdbcTemplate, new SimpleMeterRegistry(), 1000);
+        when(repository.totalTokensSince(eq(1), any())).thenAnswer(call -> stored.get());
+    }
+
+    @Test
+    void tokensRecordedDuringAFlushAreKeptForTheNextOne() {
+        usage.record(1, tokens(100, 50));
+        onUpsert(rows -> usage.record(1, tokens(10, 5)));
+
+        usage.flush();
+        onUpsert(rows -> {
+        });
+        usage.flush();
+
+        assertThat(upserted).extracting(r -> (Long) r[3] + (Long) r[4]).containsExactly(150L, 15L);
+        assertThat(stored).hasValue(165);
+    }
+
+    @Test
+    void quotaCountsTokensThatAreBeingFlushed() {
+        usage.record(1, tokens(600, 300));
+        assertThat(usage.withinQuota(1)).isTrue();
+        usage.record(1, tokens(60, 60));
+
+        // Mid-flush the counters are drained but the upsert hasn't committed yet
+        List<Boolean> duringFlush = new ArrayList<>();
+        onUpsert(rows -> duringFlush.add(usage.withinQuota(1)));
+        usage.flush();
+
+        assertThat(duringFlush).containsExactly(false);
+        assertThat(usage.withinQuota(1)).isFalse();
+    }
+
+    @Test
+    void failedFlushPutsTheCountsBack() {
+        usage.record(1, tokens(100, 50));
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class))).thenThrow(new IllegalStateException("db down"));
+        usage.flush();
+
+        onUpsert(rows -> {
+        });
+        usage.flush();
+
+        assertThat(stored).hasValue(150);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onUpsert(Consumer<List<Object[]>> duringStatement) {
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class))).thenAnswer(call -> {
+            List<Object[]> rows = call.getArgument(1);
+            duringStatement.accept(rows);
+            rows.forEach(r -> {
+                upserted.add(r);
+                stored.addAndGet((Long) r[3] + (Long) r[4]);
+            });
+            return new int[rows.size()];
+        });
+    }
+
+    private static JsonNode tokens(long prompt, long response) {
+        return new ObjectMapper().createObjectNode()
+                .put("promptTokenCount", prompt)
+                .put("candidatesTokenCount", response);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.ejindu.backend.TestcontainersConfiguration;
+import com.ejindu.backend.service.IdempotencyStore.Stored;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class IdempotencyStoreTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotencyStore store;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(jdbcTemplate, Duration.ofHours(24), Duration.ofMinutes(1), 1000);
+        key = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void onlyTheFirstClaimWins() {
+        assertThat(store.claim(1, key)).isTrue();
+        assertThat(store.claim(1, key)).isFalse();
+        assertThat(store.claim(2, key)).isTrue();
+        assertThat(store.find(1, key)).get().extracting(Stored::complete).isEqualTo(false);
+    }
+
+    @Test
+    void claimIsTakenOverOnceItsLeaseHasRunOut() {
+        store.claim(1, key);
+        jdbcTemplate.update("UPDATE idempotency_key SET claimed_at = claimed_at - interval '2 minutes'"
+                + " WHERE idempotency_key = ?", key);
+
+        assertThat(store.claim(1, key)).isTrue();
+        assertThat(store.claim(1, key)).isFalse();
+    }
+
+    @Test
+    void completedResponseIsStoredAndSurvivesRelease() {
+        store.claim(1, key);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        store.complete(1, key, "hash", 201, "application/json", body);
+        store.release(1, key);
+
+        Stored stored = store.find(1, key).orElseThrow();
+        assertThat(stored.complete()).isTrue();
+        assertThat(stored.status()).isEqualTo(201);
+        assertThat(stored.requestHash()).isEqualTo("hash");
+        assertThat(stored.body()).isEqualTo(body);
+        assertThat(store.claim(1, key)).isFalse();
+    }
+
+    @Test
+    void expiredKeyIsNotReplayedAndCanBeClaimedAgain() {
+        store.claim(1, key);
+        store.complete(1, key, "hash", 201, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+        jdbcTemplate.update("UPDATE idempotency_key SET expires_at = now() - interval '1 minute'"
+                + " WHERE idempotency_key = ?", key);
+
+        assertThat(store.find(1, key)).isEmpty();
+        assertThat(store.claim(1, key)).isTrue();
+        assertThat(store.find(1, key)).get().extracting(Stored::complete).isEqualTo(false);
+        assertThat(store.claim(1, key)).isFalse();
+    }
+
+    @Test
+    void releasedClaimCanBeClaimedAgain() {
+        store.claim(1, key);
+        store.release(1, key);
+
+        assertThat(store.find(1, key)).isEmpty();
+        assertThat(store.claim(1, key)).isTrue();
+    }
+}
@@ -0,0 +1,142 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ejindu.backend.dto.WorkoutDto;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.repository.WorkoutRepository;
+import com.ejindu.backend.service.RecentHistoryCache.Window;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RecentHistoryCacheTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final WorkoutRepository workoutRepository = mock(WorkoutRepository.class);
+    private final User user = User.builder().id(1).email("user1@example.com").build();
+
+    @Test
+    void withAddsInDateOrderAndReplacesAnUpdatedWorkout() {
+        WorkoutDto monday = dto(TODAY.minusDays(7));
+        WorkoutDto friday = dto(TODAY.minusDays(3));
+        Window window = Window.of(TODAY.minusDays(60), List.of(friday));
+
+        window = window.with(monday);
+        assertThat(window.workouts()).containsExactly(monday, friday);
+
+        WorkoutDto movedMonday = copy(monday, TODAY.minusDays(1));
+        window = window.with(movedMonday);
+        assertThat(window.workouts()).containsExactly(friday, movedMonday);
+    }
+
+    @Test
+    void workoutMovedBeforeTheWindowStartLeavesIt() {
+        LocalDate start = TODAY.minusDays(60);
+        WorkoutDto onStart = dto(start);
+        Window window = Window.of(start, List.of(onStart));
+
+        assertThat(window.with(dto(start.minusDays(1))).workouts()).containsExactly(onStart);
+        assertThat(window.with(copy(onStart, start.minusDays(1))).workouts()).isEmpty();
+    }
+
+    @Test
+    void withoutDropsTheGivenIdsAndShrinksTheEstimate() {
+        WorkoutDto kept = dto(TODAY.minusDays(2));
+        WorkoutDto deleted = dto(TODAY.minusDays(1));
+        Window window = Window.of(TODAY.minusDays(60), List.of(kept, deleted));
+
+        Window after = window.without(Set.of(deleted.getId(), UUID.randomUUID()));
+
+        assertThat(after.workouts()).containsExactly(kept);
+        assertThat(after.bytes()).isLessThan(window.bytes());
+    }
+
+    @Test
+    void rangesStartingInsideTheWindowAreServedFromMemory() {
+        Workout old = workout(TODAY.minusDays(30));
+        Workout recent = workout(TODAY.minusDays(2));
+        when(workoutRepository.findByUserAndDateBetween(eq(user), any(), any())).thenReturn(List.of(old, recent));
+        RecentHistoryCache cache = cache(60);
+
+        assertThat(cache.between(user, TODAY.minusDays(60), TODAY)).get().asList().hasSize(2);
+        assertThat(cache.between(user, TODAY.minusDays(7), TODAY)).get().asList()
+                .extracting("id").containsExactly(recent.getId());
+        verify(workoutRepository, times(1)).findByUserAndDateBetween(eq(user), any(), any());
+    }
+
+    @Test
+    void rangesStartingBeforeTheWindowGoToTheDatabase() {
+        RecentHistoryCache cache = cache(60);
+
+        assertThat(cache.between(user, TODAY.minusDays(61), TODAY)).isEmpty();
+        verifyNoInteractions(workoutRepository);
+    }
+
+    @Test
+    void writesOnlyTouchWindowsThatAreLoaded() {
+        when(workoutRepository.findByUserAndDateBetween(eq(user), any(), any())).thenReturn(List.of());
+        RecentHistoryCache cache = cache(60);
+        Workout logged = workout(TODAY);
+
+        cache.saved(user.getId(), logged);
+        assertThat(cache.between(user, TODAY.minusDays(7), TODAY)).get().asList().isEmpty();
+
+        cache.saved(user.getId(), logged);
+        assertThat(cache.between(user, TODAY.minusDays(7), TODAY)).get().asList().hasSize(1);
+        cache.removed(user.getId(), List.of(logged.getId()));
+        assertThat(cache.between(user, TODAY.minusDays(7), TODAY)).get().asList().isEmpty();
+    }
+
+    @Test
+    void windowsAreReloadedOnceTheyReachTheirMaxAgeEvenWhileRead() {
+        when(workoutRepository.findByUserAndDateBetween(eq(user), any(), any())).thenReturn(List.of());
+        // Another node's write never reaches this cache; only the max age brings it in
+        RecentHistoryCache cache = cache(60, 0);
+
+        cache.between(user, TODAY.minusDays(7), TODAY);
+        cache.between(user, TODAY.minusDays(7), TODAY);
+
+        verify(workoutRepository, times(2)).findByUserAndDateBetween(eq(user), any(), any());
+    }
+
+    private RecentHistoryCache cache(int windowDays) {
+        return cache(windowDays, 60);
+    }
+
+    private RecentHistoryCache cache(int windowDays, long maxAgeSeconds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new RecentHistoryCache(workoutRepository, transactionTemplate, new SimpleMeterRegistry(),
+                windowDays, 64, 30, maxAgeSeconds);
+    }
+
+    private static WorkoutDto dto(LocalDate date) {
+        return WorkoutDto.builder().id(UUID.randomUUID()).name("Legs").date(date).exercises(List.of()).build();
+    }
+
+    private static WorkoutDto copy(WorkoutDto dto, LocalDate date) {
+        return WorkoutDto.builder().id(dto.getId()).name(dto.getName()).date(date).exercises(List.of()).build();
+    }
+
+    private static Workout workout(LocalDate date) {
+        return Workout.builder().id(UUID.randomUUID()).name("Legs").date(date).exercises(new ArrayList<>()).build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.ejindu.backend.entity.ExerciseSet;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.entity.WorkoutExercise;
+import com.ejindu.backend.enums.Goal;
+import com.ejindu.backend.repository.WorkoutRepository;
+
+class RuleBasedAnalysisProviderTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+
+    private final WorkoutRepository workoutRepository = mock(WorkoutRepository.class);
+    private final RuleBasedAnalysisProvider provider = new RuleBasedAnalysisProvider(workoutRepository);
+    private final User user = User.builder().id(1).firstName("Sam").email("user1@example.com").build();
+
+    @Test
+    void steadySessionGetsTheAllClear() {
+        Workout today = workout(TODAY, exercise("Squat", 5, 225));
+        history(today);
+
+        assertThat(provider.analyseWorkout(today, Goal.BOTH).block())
+                .startsWith("Nice work, Sam.")
+                .doesNotContain("\n- ");
+    }
+
+    @Test
+    void sessionFarBelowTheRecentAverageIsFlagged() {
+        Workout today = workout(TODAY, exercise("Squat", 5, 100));
+        history(workout(TODAY.minusDays(2), exercise("Squat", 5, 200)),
+                workout(TODAY.minusDays(4), exercise("Squat", 5, 200)),
+                today);
+
+        assertThat(provider.analyseWorkout(today, Goal.BOTH).block())
+                .startsWith("Hey Sam, here's a quick read on your training:")
+                .contains("This session's volume (1,500 lbs) was 50% below your recent average.");
+    }
+
+    @Test
+    void sessionFarAboveTheRecentAverageIsFlagged() {
+        Workout today = workout(TODAY, exercise("Squat", 5, 300));
+        history(workout(TODAY.minusDays(3), exercise("Squat", 5, 200)), today);
+
+        assertThat(provider.analyseWorkout(today, Goal.BOTH).block())
+                .contains("This session's volume (4,500 lbs) was 50% above your recent average.");
+    }
+
+    @Test
+    void liftWithNoNewBestInThreeWeeksIsStalledAndMissingLegsIsCalledOut() {
+        Workout today = workout(TODAY, exercise("Bench Press", 5, 200));
+        history(workout(TODAY.minusDays(30), exercise("bench press ", 5, 200)),
+                workout(TODAY.minusDays(10), exercise("Bench Press", 5, 195)),
+                today);
+
+        assertThat(provider.analyseWorkout(today, Goal.BOTH).block())
+                .contains("Your bench press has stalled for 21+ days.")
+                .contains("You haven't trained legs in the last 21 days.");
+    }
+
+    @Test
+    void newBestOrARecentLegDayClearsThoseNotes() {
+        Workout today = workout(TODAY, exercise("Bench Press", 5, 205));
+        history(workout(TODAY.minusDays(30), exercise("Bench Press", 5, 200)),
+                workout(TODAY.minusDays(10), exercise("Bench Press", 5, 200), exercise("Romanian Deadlift", 8, 135)),
+                today);
+
+        assertThat(provider.analyseWorkout(today, Goal.BOTH).block())
+                .doesNotContain("stalled")
+                .doesNotContain("legs");
+    }
+
+    @Test
+    void legDayIsNotJudgedWithoutThreeWeeksOfHistory() {
+        Workout today = workout(TODAY, exercise("Bench Press", 5, 200));
+        history(workout(TODAY.minusDays(20), exercise("Bench Press", 5, 200)), today);
+
+        assertThat(provider.analyseWorkout(today, Goal.BOTH).block()).doesNotContain("legs");
+    }
+
+    @Test
+    void repRangeIsCheckedAgainstTheGoal() {
+        Workout high = workout(TODAY, exercise("Squat", 12, 135));
+        history(high);
+        assertThat(provider.analyseWorkout(high, Goal.STRENGTH).block())
+                .contains("Your sets averaged 12 reps. For strength");
+        assertThat(provider.analyseWorkout(high, Goal.MUSCLE_GROWTH).block()).doesNotContain("reps");
+
+        Workout low = workout(TODAY, exercise("Squat", 3, 315));
+        history(low);
+        assertThat(provider.analyseWorkout(low, Goal.MUSCLE_GROWTH).block())
+                .contains("Your sets averaged 3 reps. For muscle growth");
+        assertThat(provider.analyseWorkout(low, Goal.STRENGTH).block()).doesNotContain("reps");
+        assertThat(provider.analyseWorkout(low, null).block()).doesNotContain("reps");
+    }
+
+    @Test
+    void periodIsComparedWithThePeriodBeforeIt() {
+        LocalDate from = TODAY.minusDays(13);
+        List<Workout> inPeriod = List.of(
+                workout(from.plusDays(2), exercise("Squat", 5, 300)),
+                workout(from.plusDays(9), exercise("Squat", 5, 300)));
+        history(workout(from.minusDays(12), exercise("Squat", 5, 100)),
+                workout(from.minusDays(5), exercise("Squat", 5, 100)),
+                inPeriod.get(0),
+                inPeriod.get(1));
+
+        assertThat(provider.analysePeriod(inPeriod, from, TODAY, Goal.BOTH).block())
+                .contains("You averaged 1.0 sessions a week.")
+                .contains("Your total volume rose 200% compared with the previous period.");
+    }
+
+    @Test
+    void consistentPeriodIsPraised() {
+        LocalDate from = TODAY.minusDays(6);
+        List<Workout> inPeriod = List.of(
+                workout(from, exercise("Squat", 5, 200)),
+                workout(from.plusDays(2), exercise("Squat", 5, 200)),
+                workout(from.plusDays(4), exercise("Squat", 5, 200)));
+        history(inPeriod.toArray(Workout[]::new));
+
+        assertThat(provider.analysePeriod(inPeriod, from, TODAY, Goal.BOTH).block())
+                .contains("You trained 3.0 times a week on average. That's great consistency.")
+                .doesNotContain("total volume");
+    }
+
+    // The provider re-reads history itself; the arguments only pick the user and dates
+    private void history(Workout... workouts) {
+        when(workoutRepository.findByUserAndDateBetween(eq(user), any(), any())).thenReturn(List.of(workouts));
+    }
+
+    private Workout workout(LocalDate date, WorkoutExercise... exercises) {
+        return Workout.builder().id(UUID.randomUUID()).name("Session").date(date).user(user)
+                .exercises(new ArrayList<>(List.of(exercises))).build();
+    }
+
+    private static WorkoutExercise exercise(String name, int reps, int weightLbs) {
+        List<ExerciseSet> sets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sets.add(ExerciseSet.builder().reps(reps).weightLbs(weightLbs).build());
+        }
+        return WorkoutExercise.builder().name(name).sets(sets).build();
+    }
+}
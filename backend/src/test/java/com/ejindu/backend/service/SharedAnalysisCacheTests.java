@@ -0,0 +1,83 @@
+package com.ejindu.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.ejindu.backend.entity.ExerciseSet;
+import com.ejindu.backend.entity.User;
+import com.ejindu.backend.entity.Workout;
+import com.ejindu.backend.entity.WorkoutExercise;
+import com.ejindu.backend.enums.Goal;
+import com.ejindu.backend.repository.SharedAnalysisRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class SharedAnalysisCacheTests {
+
+    private static final String GENERATED = "{{name}}, that was the will of a champion. Mark this one down.";
+
+    private final SharedAnalysisRepository repository = mock(SharedAnalysisRepository.class);
+    private final SharedAnalysisCache cache = new SharedAnalysisCache(repository, new SimpleMeterRegistry(), 100, 30);
+
+    @Test
+    void nameIsFilledInWithoutTouchingOrdinaryWords() {
+        when(repository.findByFingerprintAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.empty());
+
+        String served = cache.lookupOrCompute(workout("Will", null), Goal.BOTH, Mono.just(GENERATED)).block();
+
+        assertThat(served).isEqualTo("Will, that was the will of a champion. Mark this one down.");
+        verify(repository).upsert(anyString(), eq(GENERATED), any());
+    }
+
+    @Test
+    void hitIsServedWithTheCallersOwnName() {
+        cache.lookupOrCompute(workout("Will", null), Goal.BOTH, Mono.just(GENERATED)).block();
+
+        String served = cache.lookupOrCompute(workout("Mark", null), Goal.BOTH, Mono.error(new AssertionError()))
+                .block();
+
+        assertThat(served).isEqualTo("Mark, that was the will of a champion. Mark this one down.");
+    }
+
+    @Test
+    void streamedPlaceholderSplitAcrossChunksIsFilledIn() {
+        Flux<String> chunks = Flux.just("Nice work, {", "{na", "me}", "}! Keep going {", "{name", "}} {");
+
+        List<String> served = cache.lookupOrStream(workout("Max", null), Goal.BOTH, chunks).collectList().block();
+
+        assertThat(String.join("", served)).isEqualTo("Nice work, Max! Keep going Max {");
+        verify(repository).upsert(anyString(), eq("Nice work, {{name}}! Keep going {{name}} {"), any());
+    }
+
+    @Test
+    void personalWorkoutIsFilledInButNotShared() {
+        String served = cache.lookupOrCompute(workout("Max", "left knee sore"), Goal.BOTH, Mono.just(GENERATED))
+                .block();
+
+        assertThat(served).startsWith("Max, that was");
+        verify(repository, never()).upsert(anyString(), anyString(), any());
+    }
+
+    private static Workout workout(String firstName, String notes) {
+        User user = User.builder().id(1).firstName(firstName).build();
+        List<ExerciseSet> sets = new ArrayList<>(List.of(ExerciseSet.builder().reps(5).weightLbs(225).build()));
+        WorkoutExercise squat = WorkoutExercise.builder().name("Squat").sets(sets).build();
+        return Workout.builder().name("Legs").date(LocalDate.of(2025, 6, 30)).notes(notes).user(user)
+                .exercises(new ArrayList<>(List.of(squat))).build();
+    }
+}
@@ -1,5 +1,5 @@
 import { createContext, useContext, useState, useEffect } from 'react';
-import { getCurrentUser, login as apiLogin, register as apiRegister } from '../services/apiService';
+import { getCurrentUser, login as apiLogin, logout as apiLogout, register as apiRegister } from '../services/apiService';
 
 const AuthContext = createContext();
 
@@ -48,10 +48,11 @@ export const AuthProvider = ({ children }) => {
     try {
       const response = await apiLogin(email, password);
       
-      const { token: newToken, firstName, lastName } = response;
+      const { token: newToken, refreshToken, firstName, lastName } = response;
       setToken(newToken);
       setUser({ firstName, lastName, email });
       localStorage.setItem('token', newToken);
+      localStorage.setItem('refreshToken', refreshToken);
       
       return { success: true };
     } catch (error) {
@@ -67,10 +68,11 @@ export const AuthProvider = ({ children }) => {
     try {
       const response = await apiRegister(firstName, lastName, email, password);
       
-      const { token: newToken } = response;
+      const { token: newToken, refreshToken } = response;
       setToken(newToken);
       setUser({ firstName, lastName, email });
       localStorage.setItem('token', newToken);
+      localStorage.setItem('refreshToken', refreshToken);
       
       return { success: true };
     } catch (error) {
@@ -94,9 +96,11 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    apiLogout();
     setToken(null);
     setUser(null);
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
   };
 
   const value = {
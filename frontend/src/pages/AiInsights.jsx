@@ -22,7 +22,8 @@ const AiInsights = () => {
         from.setDate(from.getDate() - 30); // Last 30 days
         const to = new Date();
     
-        const data = await getWorkouts(from, to);
+        // Only the picker needs these, so skip loading exercises and sets
+        const data = await getWorkouts(from, to, 'id,name,date');
         setWorkouts(data);
       } catch (error) {
         console.error('Error fetching workouts:', error);
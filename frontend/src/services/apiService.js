@@ -30,6 +30,60 @@ const handleResponse = async (response) => {
   return response.json();
 };
 
+// Access tokens are short-lived; requests that hit a 401 share one refresh and retry once
+let refreshing = null;
+
+const refreshAccessToken = () => {
+  if (!refreshing) {
+    refreshing = (async () => {
+      const refreshToken = localStorage.getItem('refreshToken');
+      if (!refreshToken) return false;
+      const response = await fetch(`${BASE_API_URL}/api/auth/refresh`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken })
+      });
+      if (!response.ok) {
+        localStorage.removeItem('refreshToken');
+        return false;
+      }
+      const data = await response.json();
+      localStorage.setItem('token', data.token);
+      localStorage.setItem('refreshToken', data.refreshToken);
+      return true;
+    })()
+      .catch(() => false)
+      .finally(() => { refreshing = null; });
+  }
+  return refreshing;
+};
+
+// After a write the backend says until when reads should skip the replicas; sending that back
+// lets whichever server handles the next request show the write
+let readYourWritesUntil = null;
+
+const readYourWritesHeader = () =>
+  readYourWritesUntil && Number(readYourWritesUntil) > Date.now()
+    ? { 'Read-Your-Writes-Until': readYourWritesUntil }
+    : {};
+
+const authFetch = async (url, options = {}) => {
+  const send = async () => {
+    const response = await fetch(url, {
+      ...options,
+      headers: { ...options.headers, ...getAuthHeaders(), ...readYourWritesHeader() }
+    });
+    const until = response.headers.get('Read-Your-Writes-Until');
+    if (until) readYourWritesUntil = until;
+    return response;
+  };
+  const response = await send();
+  if (response.status === 401 && await refreshAccessToken()) {
+    return send();
+  }
+  return response;
+};
+
 // Auth endpoints
 export const login = async (email, password) => {
   const response = await fetch(`${BASE_API_URL}/api/auth/authenticate`, {
@@ -53,8 +107,18 @@ export const register = async (firstName, lastName, email, password) => {
   return handleResponse(response);
 };
 
+export const logout = async () => {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (!refreshToken) return;
+  await fetch(`${BASE_API_URL}/api/auth/logout`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ refreshToken })
+  }).catch(() => {});
+};
+
 export const getCurrentUser = async () => {
-  const response = await fetch(`${BASE_API_URL}/api/auth/me`, {
+  const response = await authFetch(`${BASE_API_URL}/api/auth/me`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
@@ -63,7 +127,7 @@ export const getCurrentUser = async () => {
 
 // User endpoints
 export const getUserProfile = async () => {
-  const response = await fetch(`${BASE_API_URL}/api/user/profile`, {
+  const response = await authFetch(`${BASE_API_URL}/api/user/profile`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
@@ -71,7 +135,7 @@ export const getUserProfile = async () => {
 };
 
 export const updateUserProfile = async (userData) => {
-  const response = await fetch(`${BASE_API_URL}/api/user/profile`, {
+  const response = await authFetch(`${BASE_API_URL}/api/user/profile`, {
     method: 'PUT',
     headers: getAuthHeaders(),
     body: JSON.stringify(userData)
@@ -80,7 +144,7 @@ export const updateUserProfile = async (userData) => {
 };
 
 export const getUserAccount = async () => {
-  const response = await fetch(`${BASE_API_URL}/api/user/account`, {
+  const response = await authFetch(`${BASE_API_URL}/api/user/account`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
@@ -88,7 +152,7 @@ export const getUserAccount = async () => {
 };
 
 export const deleteUserAccount = async () => {
-  const response = await fetch(`${BASE_API_URL}/api/user/account`, {
+  const response = await authFetch(`${BASE_API_URL}/api/user/account`, {
     method: 'DELETE',
     headers: getAuthHeaders()
   });
@@ -96,12 +160,14 @@ export const deleteUserAccount = async () => {
 };
 
 // Workout endpoints
-export const getWorkouts = async (from, to) => {
+// fields: optional comma-separated attributes, e.g. 'id,name,date' or 'name,exercises.name'
+export const getWorkouts = async (from, to, fields) => {
   const params = new URLSearchParams();
   if (from) params.append('from', from.toISOString().split('T')[0]);
   if (to) params.append('to', to.toISOString().split('T')[0]);
+  if (fields) params.append('fields', fields);
   
-  const response = await fetch(`${BASE_API_URL}/api/workout?${params}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/workout?${params}`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
@@ -109,24 +175,36 @@ export const getWorkouts = async (from, to) => {
 };
 
 export const getWorkoutById = async (id) => {
-  const response = await fetch(`${BASE_API_URL}/api/workout/${id}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/workout/${id}`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
   return handleResponse(response);
 };
 
-export const createWorkout = async (workoutData) => {
-  const response = await fetch(`${BASE_API_URL}/api/workout`, {
-    method: 'POST',
-    headers: getAuthHeaders(),
-    body: JSON.stringify(workoutData)
-  });
-  return handleResponse(response);
+// Retries dropped connections with the same Idempotency-Key, so the workout is only created once
+export const createWorkout = async (workoutData, attempts = 3) => {
+  const idempotencyKey = crypto.randomUUID();
+  for (let attempt = 1; ; attempt++) {
+    try {
+      const response = await authFetch(`${BASE_API_URL}/api/workout`, {
+        method: 'POST',
+        headers: { ...getAuthHeaders(), 'Idempotency-Key': idempotencyKey },
+        body: JSON.stringify(workoutData)
+      });
+      if (response.status >= 500 && attempt < attempts) {
+        throw new Error(`Error: ${response.status}`);
+      }
+      return handleResponse(response);
+    } catch (error) {
+      if (attempt >= attempts) throw error;
+      await new Promise(resolve => setTimeout(resolve, 500 * attempt));
+    }
+  }
 };
 
 export const updateWorkout = async (id, workoutData) => {
-  const response = await fetch(`${BASE_API_URL}/api/workout/${id}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/workout/${id}`, {
     method: 'PUT',
     headers: getAuthHeaders(),
     body: JSON.stringify(workoutData)
@@ -135,7 +213,7 @@ export const updateWorkout = async (id, workoutData) => {
 };
 
 export const deleteWorkout = async (id) => {
-  const response = await fetch(`${BASE_API_URL}/api/workout/${id}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/workout/${id}`, {
     method: 'DELETE',
     headers: getAuthHeaders()
   });
@@ -144,7 +222,7 @@ export const deleteWorkout = async (id) => {
 
 // Calendar endpoints
 export const getWorkoutCalendar = async (monthString) => {
-  const response = await fetch(`${BASE_API_URL}/api/workout/calendar?month=${monthString}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/workout/calendar?month=${monthString}`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
@@ -153,7 +231,7 @@ export const getWorkoutCalendar = async (monthString) => {
 
 // AI/Gemini endpoints
 export const getWorkoutAnalysis = async (workoutId, goal) => {
-  const response = await fetch(`${BASE_API_URL}/api/gemini/workout/${workoutId}?goal=${goal}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/gemini/workout/${workoutId}?goal=${goal}`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
@@ -161,9 +239,53 @@ export const getWorkoutAnalysis = async (workoutId, goal) => {
 };
 
 export const getPeriodAnalysis = async (goal) => {
-  const response = await fetch(`${BASE_API_URL}/api/gemini/period?goal=${goal}`, {
+  const response = await authFetch(`${BASE_API_URL}/api/gemini/period?goal=${goal}`, {
     method: 'GET',
     headers: getAuthHeaders()
   });
   return handleResponse(response);
 }; 
+
+// Streams analysis text as it is generated; onChunk receives each piece of text
+const streamAnalysis = async (url, options, onChunk) => {
+  const response = await authFetch(url, {
+    ...options,
+    headers: { ...getAuthHeaders(), 'Accept': 'text/event-stream' }
+  });
+  if (!response.ok) {
+    return handleResponse(response);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+  let full = '';
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    const events = buffer.split('\n\n');
+    buffer = events.pop();
+    for (const raw of events) {
+      const lines = raw.split('\n');
+      const event = lines.find(l => l.startsWith('event:'))?.slice(6).trim();
+      const data = lines.filter(l => l.startsWith('data:')).map(l => l.slice(5)).join('\n');
+      if (event === 'error') throw new Error(data || 'Analysis failed');
+      if (event === 'chunk') {
+        full += data;
+        onChunk(data);
+      }
+    }
+  }
+  return { analysis: full };
+};
+
+export const streamWorkoutAnalysis = (workoutId, goal, onChunk) =>
+  streamAnalysis(`${BASE_API_URL}/api/gemini/workout/${workoutId}/stream?goal=${goal}`, { method: 'POST' }, onChunk);
+
+export const streamPeriodAnalysis = (from, to, goal, onChunk) =>
+  streamAnalysis(`${BASE_API_URL}/api/gemini/period/stream?goal=${goal}`, {
+    method: 'POST',
+    body: JSON.stringify({ from, to })
+  }, onChunk);